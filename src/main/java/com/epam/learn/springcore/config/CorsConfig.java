@@ -1,5 +1,6 @@
 package com.epam.learn.springcore.config;
 
+import com.epam.learn.springcore.filter.TransactionFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -18,6 +19,7 @@ public class CorsConfig {
         config.setAllowedOriginPatterns(List.of("http://localhost:4200"));
         config.addAllowedMethod("*");
         config.addAllowedHeader("*");
+        config.addExposedHeader(TransactionFilter.REQUEST_ID_HEADER);
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
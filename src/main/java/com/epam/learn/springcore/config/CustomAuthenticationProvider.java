@@ -2,39 +2,60 @@ package com.epam.learn.springcore.config;
 
 import com.epam.learn.springcore.service.BruteForceProtectionService;
 import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.PasswordHashingService;
+import com.epam.learn.springcore.service.UserService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 
 @Component
+@Log4j2
 @RequiredArgsConstructor
 public class CustomAuthenticationProvider implements AuthenticationProvider {
     private final CustomUserDetailsService customUserDetailsService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final BruteForceProtectionService bruteForceProtectionService;
+    private final UserService userService;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String username = authentication.getName();
         String password = (String) authentication.getCredentials();
-        // Check if the user is blocked due to too many failed login attempts
-        if (bruteForceProtectionService.isBlocked(username)) {
+        String ip = authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+        // Check if the user or the client is blocked due to too many failed login attempts
+        if (bruteForceProtectionService.isBlocked(username, ip)) {
             throw new BadCredentialsException("You have been temporarily locked due to too many failed login attempts.");
         }
-        UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+        UserDetails userDetails;
+        try {
+            userDetails = customUserDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            userDetails = null; // Unknown usernames count as failures too, otherwise spraying them is free
+        }
         // Verify user credentials
-        if (userDetails == null || !passwordEncoder.matches(password, userDetails.getPassword())) {
-            bruteForceProtectionService.loginFailed(username); // Record failed login attempt
+        if (userDetails == null || !passwordHashingService.matches(password, userDetails.getPassword())) {
+            bruteForceProtectionService.loginFailed(username, ip); // Record failed login attempt
             throw new BadCredentialsException("Invalid username or password.");
         }
 
-        bruteForceProtectionService.loginSucceeded(username); // Record successful login
+        bruteForceProtectionService.loginSucceeded(username, ip); // Record successful login
+        // Re-hash with the current BCrypt strength while the raw password is at hand. Best effort only: a busy
+        // hashing pool or a concurrent update must not fail a valid login, the next login tries again
+        if (passwordHashingService.upgradeEncoding(userDetails.getPassword())) {
+            try {
+                userService.changePassword(username, password);
+            } catch (RuntimeException e) {
+                log.warn("Could not re-hash the password of {}, retrying on the next login: {}", username, e.toString());
+            }
+        }
         return new UsernamePasswordAuthenticationToken(username, password, userDetails.getAuthorities());
     }
 
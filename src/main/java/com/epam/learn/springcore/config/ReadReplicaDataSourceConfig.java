@@ -0,0 +1,84 @@
+package com.epam.learn.springcore.config;
+
+import com.epam.learn.springcore.monitoring.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Enabled by listing replica JDBC URLs. The DataSource hands out lazy connections: the pool is picked on the
+// first statement, when the transaction is known to be read-only or not. Read-only transactions go to the
+// replicas, everything else (including Flyway) to the primary pool configured through spring.datasource.
+// Pools are not beans, so SQL monitoring wraps only the routing DataSource and every statement is counted once
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReadReplicaDataSourceConfig {
+    private static final String PRIMARY_POOL_NAME = "primary";
+    private static final String REPLICA_POOL_PREFIX = "replica-";
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(Environment environment, MeterRegistry meterRegistry,
+                                               @Value("${datasource.replica.urls}") String[] urls,
+                                               @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                               @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+                                               @Value("${datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${datasource.replica.lag-column:Seconds_Behind_Source}") String lagColumn,
+                                               @Value("${datasource.replica.max-lag-seconds:5}") long maxLagSeconds) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName(REPLICA_POOL_PREFIX + (i + 1));
+            replica.setReadOnly(true);
+            // A replica that is down at startup must not fail the application, it is just not used
+            replica.setInitializationFailTimeout(-1);
+            // Same driver settings as the primary, anything under datasource.replica.hikari takes precedence
+            Binder.get(environment).bind("spring.datasource.hikari.data-source-properties",
+                    Bindable.mapOf(String.class, String.class)).ifBound(properties -> properties.forEach(replica::addDataSourceProperty));
+            Binder.get(environment).bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+            replicas.put(replica.getPoolName(), pool(replica, meterRegistry));
+        }
+        return new ReplicaLagMonitor(replicas, lagQuery, lagColumn, maxLagSeconds, meterRegistry);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(PRIMARY_POOL_NAME);
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(pool(primary, meterRegistry));
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicaLagMonitor));
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(HikariDataSource pool, MeterRegistry meterRegistry) {
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+        return pool;
+    }
+}
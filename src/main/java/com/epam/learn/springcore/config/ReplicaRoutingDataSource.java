@@ -0,0 +1,46 @@
+package com.epam.learn.springcore.config;
+
+import com.epam.learn.springcore.monitoring.ReplicaLagMonitor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Connections for read-only transactions: the healthy replicas take turns, the primary serves when no replica
+// is healthy or the chosen one refuses a connection
+@Log4j2
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor replicaLagMonitor) {
+        this.primary = primary;
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        List<String> healthy = replicaLagMonitor.getHealthyReplicas();
+        if (!healthy.isEmpty()) {
+            String replica = healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+            try {
+                return replicaLagMonitor.getReplica(replica).getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} refused a connection, reading from the primary", replica, e);
+                replicaLagMonitor.markUnavailable(replica);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica routing uses the credentials of the pools");
+    }
+}
@@ -3,7 +3,9 @@ package com.epam.learn.springcore.config;
 import com.epam.learn.springcore.jwt.JwtAuthEntryPoint;
 import com.epam.learn.springcore.jwt.JwtRequestFilter;
 import com.epam.learn.springcore.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -24,8 +26,9 @@ public class SecurityConfig {
     private final JwtAuthEntryPoint jwtAuthEntryPoint;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // bcrypt adds a salt automatically
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        // bcrypt adds a salt automatically; hashes with a lower strength are upgraded on the next login
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -33,6 +36,8 @@ public class SecurityConfig {
         return http.csrf(AbstractHttpConfigurer::disable)
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthEntryPoint))
                 .authorizeHttpRequests((requests) -> requests
+                        // streamed responses finish on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/trainees", "/api/trainers", "/api/auth/login",
                                 "swagger-ui/**", "/v2/api-docs", "/v3/api-docs", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated())
@@ -47,10 +52,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -0,0 +1,35 @@
+package com.epam.learn.springcore.config;
+
+import com.epam.learn.springcore.monitoring.SqlExecutionTracker;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Wraps the DataSource so that SqlExecutionTracker sees every statement and result set row.
+// The proxy unwraps to the pool, so pool metrics and health checks keep working
+@Component
+@ConditionalOnProperty(name = "monitoring.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringDataSourcePostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<SqlExecutionTracker> sqlExecutionTracker;
+
+    public SqlMonitoringDataSourcePostProcessor(ObjectProvider<SqlExecutionTracker> sqlExecutionTracker) {
+        this.sqlExecutionTracker = sqlExecutionTracker;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        SqlExecutionTracker tracker = sqlExecutionTracker.getObject();
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(tracker)
+                .methodListener(tracker)
+                .proxyResultSet()
+                .buildProxy();
+    }
+}
@@ -24,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -61,10 +62,12 @@ public class LoginController {
     })
     @Timed(value = "custom_api_timing", description = "Time taken to process /api/login")
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
         hitCounter.increment();
-        customAuthenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(authRequest.getUsername(),
-                authRequest.getPassword()));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(authRequest.getUsername(),
+                authRequest.getPassword());
+        authentication.setDetails(new WebAuthenticationDetails(request)); // client IP for login throttling
+        customAuthenticationProvider.authenticate(authentication);
         final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.getUsername());
         final String token = jwtTokenUtil.generateToken(userDetails);
         return new ResponseEntity<>(new AuthResponse(token, authRequest.getUsername()), HttpStatus.OK);
@@ -2,6 +2,8 @@ package com.epam.learn.springcore.controller;
 
 import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.facade.AuthenticationFacade;
+import com.epam.learn.springcore.facade.BulkImportFacade;
+import com.epam.learn.springcore.facade.NdjsonStreamFacade;
 import com.epam.learn.springcore.jwt.JwtTokenUtil;
 import com.epam.learn.springcore.service.CustomUserDetailsService;
 import com.epam.learn.springcore.service.TraineeService;
@@ -12,14 +14,20 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -27,20 +35,27 @@ import java.util.List;
 @RequestMapping("/api/trainees")
 @Tag(name = "REST APIs for Trainee Resource")
 public class TraineeController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TraineeService traineeService;
     private final Timer registerTraineeTimer;
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenUtil jwtTokenUtil;
     private final AuthenticationFacade authenticationFacade;
+    private final BulkImportFacade bulkImportFacade;
+    private final NdjsonStreamFacade ndjsonStreamFacade;
 
     public TraineeController(TraineeService traineeService, MeterRegistry meterRegistry,
                              CustomUserDetailsService userDetailsService, JwtTokenUtil jwtTokenUtil,
-                             AuthenticationFacade authenticationFacade) {
+                             AuthenticationFacade authenticationFacade, BulkImportFacade bulkImportFacade,
+                             NdjsonStreamFacade ndjsonStreamFacade) {
         this.traineeService = traineeService;
         this.registerTraineeTimer = meterRegistry.timer("trainee.register.time", "method", "registerTrainee");
         this.userDetailsService = userDetailsService;
         this.jwtTokenUtil = jwtTokenUtil;
         this.authenticationFacade = authenticationFacade;
+        this.bulkImportFacade = bulkImportFacade;
+        this.ndjsonStreamFacade = ndjsonStreamFacade;
     }
 
     @Operation(summary = "Register Trainee", description = "Is used to save trainee into database")
@@ -53,20 +68,37 @@ public class TraineeController {
         return new ResponseEntity<>(new ProfileCreatedResponse(trainee.getUsername(), trainee.getPassword(), token), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Register Trainees In Bulk", description = "Is used to save a JSON array or NDJSON stream of trainees into database, " +
+            "one NDJSON result line is streamed back per row")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rows processed, see the per row results"),
+            @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content)
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void registerTrainees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        bulkImportFacade.importRows(request, response, TraineeRegistrationRequest.class, traineeService::createTrainees);
+    }
+
     @Operation(summary = "Get Trainee Profile", description = "Is used to fetch information about trainee from database")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Trainee found"),
+            @ApiResponse(responseCode = "304", description = "Trainee profile not modified since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Trainee not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
             @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
     })
     @GetMapping("/{username}")
     public ResponseEntity<GetTraineeProfileResponse> getTraineeProfile(@Valid @PathVariable String username,
-                                                                       @RequestHeader HttpHeaders headers) {
+                                                                       @RequestHeader HttpHeaders headers, WebRequest webRequest) {
         String token = authenticationFacade.extractAuthToken(headers);
         if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
-            GetTraineeProfileResponse getTraineeProfileResponse = traineeService.selectTrainee(username);
-            return new ResponseEntity<>(getTraineeProfileResponse, HttpStatus.OK);
+            String eTag = traineeService.getTraineeProfileETag(username);
+            if (webRequest.checkNotModified(eTag)) {
+                return null; // 304 is already set, the profile is not loaded
+            }
+            ETaggedResponse<GetTraineeProfileResponse> profile = traineeService.selectTraineeWithETag(username);
+            return ResponseEntity.ok().eTag(profile.eTag()).body(profile.body());
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
@@ -140,10 +172,14 @@ public class TraineeController {
             @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
     })
     @GetMapping("/{username}/trainers-not-assigned-to-trainee")
-    public ResponseEntity<List<TrainerResponse>> getActiveTrainersNotAssignedToTrainee(@PathVariable String username, @RequestHeader HttpHeaders headers) {
+    public ResponseEntity<List<TrainerResponse>> getActiveTrainersNotAssignedToTrainee(@PathVariable String username,
+                                                                                       @RequestParam(required = false) String specialization,
+                                                                                       @RequestParam(required = false) Integer page,
+                                                                                       @RequestParam(required = false) Integer size,
+                                                                                       @RequestHeader HttpHeaders headers) {
         String token = authenticationFacade.extractAuthToken(headers);
         if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
-            List<TrainerResponse> notAssignedTrainers = traineeService.findActiveTrainersNotAssignedToTrainee(username);
+            List<TrainerResponse> notAssignedTrainers = traineeService.findActiveTrainersNotAssignedToTrainee(username, specialization, page, size);
             return new ResponseEntity<>(notAssignedTrainers, HttpStatus.OK);
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
@@ -170,9 +206,11 @@ public class TraineeController {
         }
     }
 
-    @Operation(summary = "Get Trainee Trainings", description = "Is used to fetch the list of trainings for trainee")
+    @Operation(summary = "Get Trainee Trainings", description = "Is used to fetch one page of trainings for trainee ordered by date, " +
+            "the X-Next-Cursor response header holds the cursor of the next page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "The list of trainings fetched"),
+            @ApiResponse(responseCode = "200", description = "The page of trainings fetched"),
+            @ApiResponse(responseCode = "400", description = "Cursor is not valid", content = @Content),
             @ApiResponse(responseCode = "404", description = "Trainee not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
             @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
@@ -183,11 +221,42 @@ public class TraineeController {
                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodTo,
                                                               @RequestParam(required = false) String trainerName,
                                                               @RequestParam(required = false) String trainingType,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit,
                                                                              @RequestHeader HttpHeaders headers) {
         String token = authenticationFacade.extractAuthToken(headers);
         if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
-            List<TraineeTrainingResponse> trainings = traineeService.getTraineeTrainings(username, periodFrom, periodTo, trainerName, trainingType);
-            return new ResponseEntity<>(trainings, HttpStatus.OK);
+            TrainingHistoryPage<TraineeTrainingResponse> page = traineeService.getTraineeTrainings(username, periodFrom, periodTo,
+                    trainerName, trainingType, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getTrainings());
+        } else {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @Operation(summary = "Stream Trainee Trainings", description = "Is used to stream the whole filtered training history of trainee " +
+            "as NDJSON, one training per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The trainings are streamed"),
+            @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
+    })
+    @GetMapping(value = "/{username}/trainings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTraineeTrainings(@PathVariable String username,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodFrom,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodTo,
+                                                                        @RequestParam(required = false) String trainerName,
+                                                                        @RequestParam(required = false) String trainingType,
+                                                                        @RequestHeader HttpHeaders headers) {
+        String token = authenticationFacade.extractAuthToken(headers);
+        if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
+            StreamingResponseBody body = ndjsonStreamFacade.<TraineeTrainingResponse>stream(consumer ->
+                    traineeService.streamTraineeTrainings(username, periodFrom, periodTo, trainerName, trainingType, consumer));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
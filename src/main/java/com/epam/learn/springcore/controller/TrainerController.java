@@ -2,6 +2,8 @@ package com.epam.learn.springcore.controller;
 
 import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.facade.AuthenticationFacade;
+import com.epam.learn.springcore.facade.BulkImportFacade;
+import com.epam.learn.springcore.facade.NdjsonStreamFacade;
 import com.epam.learn.springcore.jwt.JwtTokenUtil;
 import com.epam.learn.springcore.service.CustomUserDetailsService;
 import com.epam.learn.springcore.service.TrainerService;
@@ -10,15 +12,21 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -31,6 +39,8 @@ public class TrainerController {
     private final CustomUserDetailsService userDetailsService;
     private final JwtTokenUtil jwtTokenUtil;
     private final AuthenticationFacade authenticationFacade;
+    private final BulkImportFacade bulkImportFacade;
+    private final NdjsonStreamFacade ndjsonStreamFacade;
 
     @Operation(summary = "Register Trainer", description = "Is used to save trainer into database")
     @ApiResponse(responseCode = "201", description = "Http Status 201 CREATED")
@@ -42,19 +52,37 @@ public class TrainerController {
         return new ResponseEntity<>(new ProfileCreatedResponse(trainer.getUsername(), trainer.getPassword(), token), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Register Trainers In Bulk", description = "Is used to save a JSON array or NDJSON stream of trainers into database, " +
+            "one NDJSON result line is streamed back per row")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rows processed, see the per row results"),
+            @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content)
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void registerTrainers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        bulkImportFacade.importRows(request, response, TrainerRegistrationRequest.class, trainerService::createTrainers);
+    }
+
     @Operation(summary = "Get Trainer Profile", description = "Is used to fetch information about trainer from database")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Trainer found"),
+            @ApiResponse(responseCode = "304", description = "Trainer profile not modified since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Trainer not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
             @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
     })
     @GetMapping("/{username}")
-    public ResponseEntity<GetTrainerProfileResponse> getTrainerProfile(@PathVariable String username, @RequestHeader HttpHeaders headers) {
+    public ResponseEntity<GetTrainerProfileResponse> getTrainerProfile(@PathVariable String username, @RequestHeader HttpHeaders headers,
+                                                                       WebRequest webRequest) {
         String token = authenticationFacade.extractAuthToken(headers);
         if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
-            GetTrainerProfileResponse getTrainerProfileResponse = trainerService.selectTrainer(username);
-            return new ResponseEntity<>(getTrainerProfileResponse, HttpStatus.OK);
+            String eTag = trainerService.getTrainerProfileETag(username);
+            if (webRequest.checkNotModified(eTag)) {
+                return null; // 304 is already set, the profile is not loaded
+            }
+            ETaggedResponse<GetTrainerProfileResponse> profile = trainerService.selectTrainerWithETag(username);
+            return ResponseEntity.ok().eTag(profile.eTag()).body(profile.body());
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
@@ -102,9 +130,11 @@ public class TrainerController {
         }
     }
 
-    @Operation(summary = "Get Trainer Trainings", description = "Is used to fetch the list of trainings for trainer")
+    @Operation(summary = "Get Trainer Trainings", description = "Is used to fetch one page of trainings for trainer ordered by date, " +
+            "the X-Next-Cursor response header holds the cursor of the next page")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "The list of trainings fetched"),
+            @ApiResponse(responseCode = "200", description = "The page of trainings fetched"),
+            @ApiResponse(responseCode = "400", description = "Cursor is not valid", content = @Content),
             @ApiResponse(responseCode = "404", description = "Trainer not found", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
             @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
@@ -113,12 +143,43 @@ public class TrainerController {
     public ResponseEntity<List<TrainerTrainingResponse>> getTrainerTrainings(@PathVariable String username,
                                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodFrom,
                                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodTo,
-                                                                             @RequestParam(required = false) String traineeName, @RequestHeader HttpHeaders headers) {
+                                                                             @RequestParam(required = false) String traineeName,
+                                                                             @RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false) Integer limit,
+                                                                             @RequestHeader HttpHeaders headers) {
 
         String token = authenticationFacade.extractAuthToken(headers);
         if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
-            List<TrainerTrainingResponse> trainings = trainerService.getTrainerTrainings(username, periodFrom, periodTo, traineeName);
-            return new ResponseEntity<>(trainings, HttpStatus.OK);
+            TrainingHistoryPage<TrainerTrainingResponse> page = trainerService.getTrainerTrainings(username, periodFrom, periodTo,
+                    traineeName, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(TraineeController.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getTrainings());
+        } else {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @Operation(summary = "Stream Trainer Trainings", description = "Is used to stream the whole filtered training history of trainer " +
+            "as NDJSON, one training per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The trainings are streamed"),
+            @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Access to requested resource forbidden", content = @Content)
+    })
+    @GetMapping(value = "/{username}/trainings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTrainerTrainings(@PathVariable String username,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodFrom,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodTo,
+                                                                        @RequestParam(required = false) String traineeName,
+                                                                        @RequestHeader HttpHeaders headers) {
+        String token = authenticationFacade.extractAuthToken(headers);
+        if (!token.isEmpty() && jwtTokenUtil.getUsernameFromToken(token).equals(username)) {
+            StreamingResponseBody body = ndjsonStreamFacade.<TrainerTrainingResponse>stream(consumer ->
+                    trainerService.streamTrainerTrainings(username, periodFrom, periodTo, traineeName, consumer));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
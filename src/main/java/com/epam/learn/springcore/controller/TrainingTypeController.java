@@ -8,11 +8,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -26,10 +26,15 @@ public class TrainingTypeController {
     @Operation(summary = "Get Training Types", description = "Is used to fetch the list of available training types from database")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of training types fetched"),
+            @ApiResponse(responseCode = "304", description = "Training types not modified since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "401", description = "Request lacks valid authentication credentials", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<TrainingType>> getAllTrainingTypes() {
-        return new ResponseEntity<>(trainingTypeService.getAllTrainingTypes(), HttpStatus.OK);
+    public ResponseEntity<List<TrainingType>> getAllTrainingTypes(WebRequest webRequest) {
+        String eTag = trainingTypeService.getETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null; // 304 is already set
+        }
+        return ResponseEntity.ok().eTag(eTag).body(trainingTypeService.getAllTrainingTypes());
     }
 }
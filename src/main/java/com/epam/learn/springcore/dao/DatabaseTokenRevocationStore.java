@@ -0,0 +1,36 @@
+package com.epam.learn.springcore.dao;
+
+import com.epam.learn.springcore.entity.RevokedToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.jwt.revocation.store", havingValue = "database")
+public class DatabaseTokenRevocationStore implements TokenRevocationStore {
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    public void revoke(String tokenHash, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenHash, expiresAt));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenHash) {
+        return revokedTokenRepository.existsByTokenHashAndExpiresAtAfter(tokenHash, Instant.now());
+    }
+
+    @Override
+    public Collection<String> findActiveTokenHashes() {
+        return revokedTokenRepository.findActiveTokenHashes(Instant.now());
+    }
+
+    @Override
+    public void removeExpired() {
+        revokedTokenRepository.deleteExpired(Instant.now());
+    }
+}
@@ -0,0 +1,49 @@
+package com.epam.learn.springcore.dao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@ConditionalOnProperty(name = "security.jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void revoke(String tokenHash, Instant expiresAt) {
+        revokedTokens.put(tokenHash, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenHash) {
+        Instant expiresAt = revokedTokens.get(tokenHash);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            revokedTokens.remove(tokenHash, expiresAt); // The token is expired anyway, no need to keep it
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<String> findActiveTokenHashes() {
+        Instant now = Instant.now();
+        return revokedTokens.entrySet().stream()
+                .filter(entry -> entry.getValue().isAfter(now))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public void removeExpired() {
+        Instant now = Instant.now();
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    }
+}
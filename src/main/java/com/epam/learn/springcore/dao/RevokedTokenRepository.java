@@ -0,0 +1,23 @@
+package com.epam.learn.springcore.dao;
+
+import com.epam.learn.springcore.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    boolean existsByTokenHashAndExpiresAtAfter(String tokenHash, Instant now);
+
+    @Query("SELECT r.tokenHash FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<String> findActiveTokenHashes(@Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,14 @@
+package com.epam.learn.springcore.dao;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface TokenRevocationStore {
+    void revoke(String tokenHash, Instant expiresAt);
+
+    boolean isRevoked(String tokenHash);
+
+    Collection<String> findActiveTokenHashes();
+
+    void removeExpired();
+}
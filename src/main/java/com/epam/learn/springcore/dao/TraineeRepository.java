@@ -1,7 +1,10 @@
 package com.epam.learn.springcore.dao;
 
+import com.epam.learn.springcore.dto.ProfileVersion;
+import com.epam.learn.springcore.dto.TrainerResponse;
 import com.epam.learn.springcore.entity.Trainee;
-import com.epam.learn.springcore.entity.Trainer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,14 +13,39 @@ import java.util.List;
 import java.util.Optional;
 
 public interface TraineeRepository extends JpaRepository<Trainee, Integer> {
+    @EntityGraph(Trainee.SUMMARY_GRAPH)
     @Query("SELECT t FROM Trainee t WHERE t.user.username = :username")
     Optional<Trainee> findByUsername(@Param("username") String username);
 
+    // Resolves the username once per request, the queries that follow filter on the integer key
+    @Query("SELECT t.id FROM Trainee t WHERE t.user.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
+    // Profile view: trainee, its trainers and their users/specializations in one select
+    @EntityGraph(Trainee.PROFILE_GRAPH)
+    @Query("SELECT t FROM Trainee t WHERE t.user.username = :username")
+    Optional<Trainee> findProfileByUsername(@Param("username") String username);
+
+    // Cheap enough to run before findProfileByUsername to answer conditional requests
+    @Query("""
+            SELECT new com.epam.learn.springcore.dto.ProfileVersion(t.version, u.version, COUNT(tr),\s
+            COALESCE(SUM(tr.version + tu.version), 0L))\s
+            FROM Trainee t JOIN t.user u LEFT JOIN t.trainers tr LEFT JOIN tr.user tu\s
+            WHERE u.username = :username\s
+            GROUP BY t.version, u.version""")
+    Optional<ProfileVersion> findProfileVersionByUsername(@Param("username") String username);
+
+    // Anti-join probing the trainee_trainer primary key, only the response columns are selected. The
+    // specialization id is the foreign key column, so training_type is not joined
     @Query("""
-            SELECT t FROM Trainer t\s
-            WHERE t.user.isActive = true\s
-            AND t.id NOT IN (SELECT tr.id FROM Trainee te JOIN te.trainers tr\s
-            WHERE te.user.username = :username)""")
-    List<Trainer> findActiveTrainersNotAssignedToTrainee(@Param("username") String username);
+            SELECT new com.epam.learn.springcore.dto.TrainerResponse(u.username, u.firstName, u.lastName, t.specialization.id)\s
+            FROM Trainer t JOIN t.user u\s
+            WHERE u.isActive = true\s
+            AND (:specializationId IS NULL OR t.specialization.id = :specializationId)\s
+            AND NOT EXISTS (SELECT 1 FROM Trainee te JOIN te.trainers tr WHERE te.id = :traineeId AND tr.id = t.id)\s
+            ORDER BY u.username""")
+    List<TrainerResponse> findActiveTrainersNotAssignedToTrainee(@Param("traineeId") Integer traineeId,
+                                                                 @Param("specializationId") Integer specializationId,
+                                                                 Pageable pageable);
 
 }
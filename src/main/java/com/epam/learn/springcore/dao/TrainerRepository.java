@@ -1,14 +1,57 @@
 package com.epam.learn.springcore.dao;
 
+import com.epam.learn.springcore.dto.ProfileVersion;
 import com.epam.learn.springcore.entity.Trainer;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TrainerRepository extends JpaRepository<Trainer, Integer> {
+    @EntityGraph(Trainer.SUMMARY_GRAPH)
     @Query("SELECT t FROM Trainer t WHERE t.user.username = :username")
     Optional<Trainer> findByUsername(@Param("username") String username);
 
+    // Resolves the username once per request, the queries that follow filter on the integer key
+    @Query("SELECT t.id FROM Trainer t WHERE t.user.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
+    // Resolves a whole list of usernames with one IN query
+    @EntityGraph(Trainer.SUMMARY_GRAPH)
+    @Query("SELECT t FROM Trainer t WHERE t.user.username IN :usernames")
+    List<Trainer> findAllByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    // Profile view: trainer, its specialization, trainees and their users in one select
+    @EntityGraph(Trainer.PROFILE_GRAPH)
+    @Query("SELECT t FROM Trainer t WHERE t.user.username = :username")
+    Optional<Trainer> findProfileByUsername(@Param("username") String username);
+
+    // Cheap enough to run before findProfileByUsername to answer conditional requests. Changes of the trainees
+    // list show in t.version, see incrementVersions
+    @Query("""
+            SELECT new com.epam.learn.springcore.dto.ProfileVersion(t.version, u.version, COUNT(te),\s
+            COALESCE(SUM(te.version + teu.version), 0L))\s
+            FROM Trainer t JOIN t.user u LEFT JOIN t.trainees te LEFT JOIN te.user teu\s
+            WHERE u.username = :username\s
+            GROUP BY t.version, u.version""")
+    Optional<ProfileVersion> findProfileVersionByUsername(@Param("username") String username);
+
+    // Checked on the join table instead of loading the trainer's whole trainees collection
+    @Query("SELECT COUNT(te) > 0 FROM Trainer t JOIN t.trainees te WHERE t.id = :trainerId AND te.id = :traineeId")
+    boolean isTraineeAssigned(@Param("trainerId") Integer trainerId, @Param("traineeId") Integer traineeId);
+
+    @Query("SELECT tr.id FROM Trainee te JOIN te.trainers tr WHERE te.id = :traineeId")
+    List<Integer> findIdsByTraineeId(@Param("traineeId") Integer traineeId);
+
+    // Assignments are written from the trainee side, which leaves the trainer's version alone. One bulk update
+    // forces the increment for every trainer whose trainees list changed
+    @Modifying
+    @Query("UPDATE Trainer t SET t.version = t.version + 1 WHERE t.id IN :ids")
+    int incrementVersions(@Param("ids") Collection<Integer> ids);
+
 }
@@ -0,0 +1,21 @@
+package com.epam.learn.springcore.dao;
+
+import com.epam.learn.springcore.dto.TraineeTrainingResponse;
+import com.epam.learn.springcore.dto.TrainerTrainingResponse;
+import com.epam.learn.springcore.dto.TrainingCursor;
+import com.epam.learn.springcore.dto.TrainingHistoryPage;
+import com.epam.learn.springcore.entity.Training;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface TrainingProjectionRepository {
+    TrainingHistoryPage<TraineeTrainingResponse> findTraineeTrainings(Specification<Training> spec, TrainingCursor after, int limit);
+
+    TrainingHistoryPage<TrainerTrainingResponse> findTrainerTrainings(Specification<Training> spec, TrainingCursor after, int limit);
+
+    // Must be consumed and closed inside a transaction
+    Stream<TraineeTrainingResponse> streamTraineeTrainings(Specification<Training> spec);
+
+    Stream<TrainerTrainingResponse> streamTrainerTrainings(Specification<Training> spec);
+}
@@ -0,0 +1,116 @@
+package com.epam.learn.springcore.dao;
+
+import com.epam.learn.springcore.dto.TraineeTrainingResponse;
+import com.epam.learn.springcore.dto.TrainerTrainingResponse;
+import com.epam.learn.springcore.dto.TrainingCursor;
+import com.epam.learn.springcore.dto.TrainingHistoryPage;
+import com.epam.learn.springcore.entity.Training;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Selects only the columns of the training history responses in one joined query, so no Training
+// entities or their associations are loaded for these reads.
+// Rows come in (trainingDate, id) order, which is what the keyset cursor continues from
+@RequiredArgsConstructor
+public class TrainingProjectionRepositoryImpl implements TrainingProjectionRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public TrainingHistoryPage<TraineeTrainingResponse> findTraineeTrainings(Specification<Training> spec, TrainingCursor after, int limit) {
+        return page(historyQuery("trainer", spec, after), TraineeTrainingResponse::new, limit);
+    }
+
+    @Override
+    public TrainingHistoryPage<TrainerTrainingResponse> findTrainerTrainings(Specification<Training> spec, TrainingCursor after, int limit) {
+        return page(historyQuery("trainee", spec, after), TrainerTrainingResponse::new, limit);
+    }
+
+    @Override
+    public Stream<TraineeTrainingResponse> streamTraineeTrainings(Specification<Training> spec) {
+        return stream(historyQuery("trainer", spec, null), TraineeTrainingResponse::new);
+    }
+
+    @Override
+    public Stream<TrainerTrainingResponse> streamTrainerTrainings(Specification<Training> spec) {
+        return stream(historyQuery("trainee", spec, null), TrainerTrainingResponse::new);
+    }
+
+    // counterpart is the association whose username ends up in the response: the trainer for a trainee's
+    // history and the trainee for a trainer's history.
+    // Columns are selected flat and mapped in Java: Hibernate renders ORDER BY by select position and gets
+    // the positions wrong once a constructor expression is nested in a tuple select
+    private TypedQuery<Tuple> historyQuery(String counterpart, Specification<Training> spec, TrainingCursor after) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Training> root = query.from(Training.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        Path<LocalDate> trainingDate = root.get("trainingDate");
+        Path<Integer> id = root.get("id");
+        if (after != null) {
+            Predicate afterCursor = criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(trainingDate, after.trainingDate()),
+                    criteriaBuilder.and(criteriaBuilder.equal(trainingDate, after.trainingDate()),
+                            criteriaBuilder.greaterThan(id, after.id())));
+            predicate = predicate == null ? afterCursor : criteriaBuilder.and(predicate, afterCursor);
+        }
+        query.multiselect(
+                root.get("trainingName"),
+                trainingDate,
+                join(join(root, "trainer"), "specialization").get("name"),
+                root.get("trainingDuration"),
+                join(root, counterpart).get("user").get("username"),
+                id);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(trainingDate), criteriaBuilder.asc(id));
+        return entityManager.createQuery(query);
+    }
+
+    // One extra row is read to know whether another page follows
+    private static <T> TrainingHistoryPage<T> page(TypedQuery<Tuple> query, HistoryRowMapper<T> mapper, int limit) {
+        List<Tuple> rows = query.setMaxResults(limit + 1).getResultList();
+        List<T> trainings = rows.stream().limit(limit).map(row -> map(row, mapper)).toList();
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            Tuple last = rows.get(limit - 1);
+            nextCursor = new TrainingCursor(last.get(1, LocalDate.class), last.get(5, Integer.class)).encode();
+        }
+        return new TrainingHistoryPage<>(trainings, nextCursor);
+    }
+
+    private static <T> Stream<T> stream(TypedQuery<Tuple> query, HistoryRowMapper<T> mapper) {
+        return query.setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()
+                .map(row -> map(row, mapper));
+    }
+
+    private static <T> T map(Tuple row, HistoryRowMapper<T> mapper) {
+        return mapper.map(row.get(0, String.class), row.get(1, LocalDate.class), row.get(2, String.class),
+                row.get(3, Integer.class), row.get(4, String.class));
+    }
+
+    @FunctionalInterface
+    private interface HistoryRowMapper<T> {
+        T map(String trainingName, LocalDate trainingDate, String trainingType, Integer trainingDuration, String username);
+    }
+
+    // Reuses a join the specification already added instead of joining the same table twice
+    private static Join<?, ?> join(From<?, ?> from, String attribute) {
+        return from.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals(attribute))
+                .findFirst()
+                .orElseGet(() -> from.join(attribute, JoinType.INNER));
+    }
+}
@@ -3,7 +3,33 @@ package com.epam.learn.springcore.dao;
 import com.epam.learn.springcore.entity.Training;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TrainingRepository extends JpaRepository<Training, Integer>, JpaSpecificationExecutor<Training> {
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface TrainingRepository extends JpaRepository<Training, Integer>, JpaSpecificationExecutor<Training>,
+        TrainingProjectionRepository {
+    // Both overlap checks are range scans over the (participant_id, training_date) indexes declared on Training
+    @Query("""
+            SELECT COUNT(t) > 0 FROM Training t\s
+            WHERE t.trainer.id = :trainerId\s
+            AND t.trainingDate BETWEEN :lookbackFrom AND :lastDay\s
+            AND cast(t.trainingDate as LocalDateTime) + t.trainingDuration minute > :start""")
+    boolean existsOverlappingTrainerTraining(@Param("trainerId") Integer trainerId,
+                                             @Param("lookbackFrom") LocalDate lookbackFrom,
+                                             @Param("lastDay") LocalDate lastDay,
+                                             @Param("start") LocalDateTime start);
+
+    @Query("""
+            SELECT COUNT(t) > 0 FROM Training t\s
+            WHERE t.trainee.id = :traineeId\s
+            AND t.trainingDate BETWEEN :lookbackFrom AND :lastDay\s
+            AND cast(t.trainingDate as LocalDateTime) + t.trainingDuration minute > :start""")
+    boolean existsOverlappingTraineeTraining(@Param("traineeId") Integer traineeId,
+                                             @Param("lookbackFrom") LocalDate lookbackFrom,
+                                             @Param("lastDay") LocalDate lastDay,
+                                             @Param("start") LocalDateTime start);
 
 }
@@ -1,10 +1,26 @@
 package com.epam.learn.springcore.dao;
 
+import com.epam.learn.springcore.dto.UsernameUsage;
 import com.epam.learn.springcore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, JpaSpecificationExecutor<User>,
+        UsernameLookupRepository {
     Optional<User> findByUsername(String username);
+
+    // The highest numeric suffix is computed by the database, one row comes back however common the name is.
+    // The pattern is UsernameSpecification.startsWith(base); suffixes longer than 9 digits are not counted
+    @Query(value = """
+            SELECT COUNT(CASE WHEN CHAR_LENGTH(username) = :baseLength THEN 1 END) AS baseTaken,
+            MAX(CASE WHEN CHAR_LENGTH(username) > :baseLength
+                THEN CAST(SUBSTRING(username, :baseLength + 1) AS DECIMAL(10, 0)) END) AS maxSuffix
+            FROM users
+            WHERE username LIKE :pattern ESCAPE '!'
+            AND SUBSTRING(username, :baseLength + 1) REGEXP '^[0-9]{0,9}$'""", nativeQuery = true)
+    UsernameUsage findUsernameUsage(@Param("pattern") String pattern, @Param("baseLength") int baseLength);
 }
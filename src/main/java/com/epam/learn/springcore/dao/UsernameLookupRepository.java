@@ -0,0 +1,9 @@
+package com.epam.learn.springcore.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface UsernameLookupRepository {
+    // Usernames starting with any of the base usernames, case-insensitively with the default collation
+    List<String> findUsernamesStartingWithAny(Collection<String> baseUsernames);
+}
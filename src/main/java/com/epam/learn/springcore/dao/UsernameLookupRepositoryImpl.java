@@ -0,0 +1,28 @@
+package com.epam.learn.springcore.dao;
+
+import com.epam.learn.springcore.entity.User;
+import com.epam.learn.springcore.specification.UsernameSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+// Selects only the username column, no User entities are loaded for a username allocation
+@RequiredArgsConstructor
+public class UsernameLookupRepositoryImpl implements UsernameLookupRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<String> findUsernamesStartingWithAny(Collection<String> baseUsernames) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = criteriaBuilder.createQuery(String.class);
+        Root<User> root = query.from(User.class);
+        query.select(root.get("username"))
+                .where(UsernameSpecification.usernameStartsWithAny(baseUsernames).toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
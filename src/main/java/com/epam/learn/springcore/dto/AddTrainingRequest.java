@@ -1,8 +1,11 @@
 package com.epam.learn.springcore.dto;
 
+import com.epam.learn.springcore.entity.Training;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -23,5 +26,7 @@ public class AddTrainingRequest {
     @JsonFormat(pattern="yyyy-MM-dd")
     private LocalDate trainingDate;
     @NotNull(message = "Training duration is mandatory")
+    @Positive(message = "Training duration must be positive")
+    @Max(value = Training.MAX_DURATION_MINUTES, message = "Training duration can't exceed a week")
     private Integer trainingDuration;
 }
@@ -0,0 +1,17 @@
+package com.epam.learn.springcore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+    private Integer row;
+    private String username;
+    private String password;
+    private String error;
+}
@@ -0,0 +1,5 @@
+package com.epam.learn.springcore.dto;
+
+// A response body together with the ETag of exactly the data it was built from
+public record ETaggedResponse<T>(T body, String eTag) {
+}
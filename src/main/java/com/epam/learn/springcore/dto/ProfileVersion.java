@@ -0,0 +1,10 @@
+package com.epam.learn.springcore.dto;
+
+// Versions of everything a profile response is built from: the profile row, its user row and the linked
+// profiles with their users. Versions only grow, so any change to one of them changes the sum
+public record ProfileVersion(Long version, Long userVersion, Long linkedCount, Long linkedVersionSum) {
+
+    public String eTag() {
+        return "\"" + version + "-" + userVersion + "-" + linkedCount + "-" + linkedVersionSum + "\"";
+    }
+}
@@ -1,6 +1,5 @@
 package com.epam.learn.springcore.dto;
 
-import com.epam.learn.springcore.entity.Trainer;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -18,5 +17,5 @@ public class TraineeUpdateResponse {
     private LocalDate dateOfBirth;
     private String address;
     private Boolean isActive;
-    private List<Trainer> trainersList;
+    private List<TrainerListResponse> trainersList;
 }
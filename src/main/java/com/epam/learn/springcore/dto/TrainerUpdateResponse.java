@@ -1,6 +1,5 @@
 package com.epam.learn.springcore.dto;
 
-import com.epam.learn.springcore.entity.Trainee;
 import lombok.*;
 
 import java.util.List;
@@ -16,5 +15,5 @@ public class TrainerUpdateResponse {
     private String lastName;
     private Integer specializationId;
     private Boolean isActive;
-    private List<Trainee> traineesList;
+    private List<TraineeListResponse> traineesList;
 }
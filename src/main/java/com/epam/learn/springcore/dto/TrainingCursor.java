@@ -0,0 +1,31 @@
+package com.epam.learn.springcore.dto;
+
+import com.epam.learn.springcore.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position of the last returned training in the (trainingDate, id) order, handed to clients as an opaque string
+public record TrainingCursor(LocalDate trainingDate, Integer id) {
+
+    public String encode() {
+        String value = trainingDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TrainingCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new TrainingCursor(LocalDate.parse(value.substring(0, separator)),
+                    Integer.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Cursor " + cursor + " is not valid");
+        }
+    }
+}
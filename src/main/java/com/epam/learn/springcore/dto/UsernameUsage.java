@@ -0,0 +1,8 @@
+package com.epam.learn.springcore.dto;
+
+// How a base username is used: whether it is taken itself and the highest numeric suffix taken after it
+public interface UsernameUsage {
+    Long getBaseTaken();
+
+    Long getMaxSuffix();
+}
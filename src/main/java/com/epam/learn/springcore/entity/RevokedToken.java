@@ -0,0 +1,23 @@
+package com.epam.learn.springcore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"))
+public class RevokedToken {
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -2,9 +2,11 @@ package com.epam.learn.springcore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -12,21 +14,38 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Fetch plans, associations are lazy and each use case names the graph it needs
+@NamedEntityGraph(name = Trainee.SUMMARY_GRAPH, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = Trainee.PROFILE_GRAPH,
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode(value = "trainers", subgraph = "trainer")},
+        subgraphs = @NamedSubgraph(name = "trainer", attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("specialization")}))
 public class Trainee {
+    public static final String SUMMARY_GRAPH = "Trainee.summary";
+    public static final String PROFILE_GRAPH = "Trainee.profile";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainee_seq")
+    @SequenceGenerator(name = "trainee_seq", allocationSize = 50)
     private Integer id;
     private LocalDate dateOfBirth;
     private String address;
     @OneToMany(mappedBy = "trainee", cascade = CascadeType.ALL)
     private List<Training> trainings;
+    // A Set, not a List: Hibernate rewrites a changed many-to-many bag completely, a Set gets only the
+    // added and removed join rows
     @ManyToMany
+    @OrderBy("id")
     @JoinTable(
             name = "trainee_trainer",
             joinColumns = @JoinColumn(name = "trainee_id"),
             inverseJoinColumns = @JoinColumn(name = "trainer_id"))
-    private List<Trainer> trainers;
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    private Set<Trainer> trainers;
+    // Bumped on every update including changes of the trainers list, the profile ETag is built from it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -2,8 +2,10 @@ package com.epam.learn.springcore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -11,22 +13,40 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Fetch plans, associations are lazy and each use case names the graph it needs
+@NamedEntityGraph(name = Trainer.SUMMARY_GRAPH,
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("specialization")})
+@NamedEntityGraph(name = Trainer.PROFILE_GRAPH,
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("specialization"),
+                @NamedAttributeNode(value = "trainees", subgraph = "trainee")},
+        subgraphs = @NamedSubgraph(name = "trainee", attributeNodes = @NamedAttributeNode("user")))
 public class Trainer {
+    public static final String SUMMARY_GRAPH = "Trainer.summary";
+    public static final String PROFILE_GRAPH = "Trainer.profile";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainer_seq")
+    @SequenceGenerator(name = "trainer_seq", allocationSize = 50)
     private Integer id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "specialization_id", nullable = false)
     private TrainingType specialization;
     @OneToMany(mappedBy = "trainer", cascade = CascadeType.ALL)
     private List<Training> trainings;
     @ManyToMany
+    @OrderBy("id")
     @JoinTable(
             name = "trainee_trainer",
             joinColumns = @JoinColumn(name = "trainer_id"),
             inverseJoinColumns = @JoinColumn(name = "trainee_id"))
-    private List<Trainee> trainees;
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    private Set<Trainee> trainees;
+    // Bumped on every update of the trainer. The trainee_trainer rows are written from the trainee side, so the
+    // services bump it explicitly when the trainees list changes. The profile ETag is built from it
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -11,14 +11,20 @@ import java.time.LocalDate;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_training_trainer_date", columnList = "trainer_id, training_date"),
+        @Index(name = "idx_training_trainee_date", columnList = "trainee_id, training_date")
+})
 public class Training {
+    public static final int MAX_DURATION_MINUTES = 7 * 24 * 60;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trainee_id")
     private Trainee trainee;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trainer_id")
     private Trainer trainer;
     @Column(nullable = false)
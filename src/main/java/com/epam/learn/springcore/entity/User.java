@@ -2,6 +2,7 @@ package com.epam.learn.springcore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 
 @Getter
@@ -13,7 +14,8 @@ import lombok.*;
 @ToString
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", allocationSize = 50)
     private Integer id;
     @Column(nullable = false)
     private String firstName;
@@ -25,5 +27,9 @@ public class User {
     private String password;
     @Column(nullable = false)
     private Boolean isActive;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
 }
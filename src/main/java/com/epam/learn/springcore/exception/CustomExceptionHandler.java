@@ -1,8 +1,11 @@
 package com.epam.learn.springcore.exception;
 
 import com.epam.learn.springcore.dto.CustomErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,6 +13,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 @ControllerAdvice
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final int RETRY_AFTER_SECONDS = 1;
 
     @ExceptionHandler(TrainerNotFoundException.class)
     public ResponseEntity<Object> handleTrainerNotFoundException(TrainerNotFoundException ex) {
@@ -34,4 +38,35 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
         CustomErrorResponse customErrorResponse = new CustomErrorResponse(HttpStatus.UNAUTHORIZED, "Bad credentials", ex.getMessage());
         return new ResponseEntity<>(customErrorResponse, HttpStatus.UNAUTHORIZED);
     }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        CustomErrorResponse customErrorResponse = new CustomErrorResponse(HttpStatus.CONFLICT, "Concurrent modification",
+                "The profile was changed by another request, please retry");
+        return new ResponseEntity<>(customErrorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException ex) {
+        CustomErrorResponse customErrorResponse = new CustomErrorResponse(HttpStatus.BAD_REQUEST, "Invalid cursor", ex.getMessage());
+        return new ResponseEntity<>(customErrorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Object> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        CustomErrorResponse customErrorResponse = new CustomErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .body(customErrorResponse);
+    }
+
+    // Raised by endpoints producing NDJSON, the content type is set so the error is not negotiated against it
+    @ExceptionHandler(StreamingBusyException.class)
+    public ResponseEntity<Object> handleStreamingBusyException(StreamingBusyException ex) {
+        CustomErrorResponse customErrorResponse = new CustomErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(customErrorResponse);
+    }
 }
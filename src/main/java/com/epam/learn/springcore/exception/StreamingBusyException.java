@@ -0,0 +1,7 @@
+package com.epam.learn.springcore.exception;
+
+public class StreamingBusyException extends RuntimeException {
+    public StreamingBusyException(String message) {
+        super(message);
+    }
+}
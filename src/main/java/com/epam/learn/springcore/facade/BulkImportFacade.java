@@ -0,0 +1,105 @@
+package com.epam.learn.springcore.facade;
+
+import com.epam.learn.springcore.dto.BulkRegistrationResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class BulkImportFacade {
+    private static final int CHUNK_SIZE = 500;
+    private static final String CHUNK_FAILED = "Registration failed, the row was not imported";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    // Reads either a JSON array or NDJSON rows and streams one NDJSON result line per row back,
+    // so neither the request nor the response is ever held in memory as a whole
+    public <T> void importRows(HttpServletRequest request, HttpServletResponse response, Class<T> rowType,
+                               Function<List<T>, List<BulkRegistrationResult>> chunkImporter) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        int row = 0;
+        try (MappingIterator<T> rows = objectMapper.readerFor(rowType).readValues(request.getInputStream())) {
+            while (rows.hasNextValue()) {
+                T value = rows.nextValue();
+                row++;
+                String error = validate(value);
+                if (error != null) {
+                    write(out, BulkRegistrationResult.builder().row(row).error(error).build());
+                    continue;
+                }
+                chunk.add(value);
+                chunkRows.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(out, chunk, chunkRows, chunkImporter);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Bulk import stopped at row {}: {}", row + 1, e.getOriginalMessage());
+            write(out, BulkRegistrationResult.builder().row(row + 1).error("Unreadable row: " + e.getOriginalMessage()).build());
+        }
+        importChunk(out, chunk, chunkRows, chunkImporter);
+        out.flush();
+    }
+
+    private <T> void importChunk(OutputStream out, List<T> chunk, List<Integer> chunkRows,
+                                 Function<List<T>, List<BulkRegistrationResult>> chunkImporter) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BulkRegistrationResult> results;
+        try {
+            results = chunkImporter.apply(chunk);
+        } catch (RuntimeException e) {
+            // The exception may carry SQL or constraint details, the client only learns that its rows failed
+            log.error("Bulk import of rows {}-{} failed", chunkRows.getFirst(), chunkRows.getLast(), e);
+            results = chunk.stream().map(value -> BulkRegistrationResult.builder().error(CHUNK_FAILED).build()).toList();
+        }
+        for (int i = 0; i < results.size(); i++) {
+            BulkRegistrationResult result = results.get(i);
+            result.setRow(chunkRows.get(i));
+            write(out, result);
+        }
+        out.flush();
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    private <T> String validate(T value) {
+        if (value == null) {
+            return "Empty row";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+    }
+
+    private void write(OutputStream out, BulkRegistrationResult result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,90 @@
+package com.epam.learn.springcore.facade;
+
+import com.epam.learn.springcore.exception.StreamingBusyException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Component
+public class NdjsonStreamFacade {
+    private static final String PERMIT_INTERCEPTOR_KEY = NdjsonStreamFacade.class.getName() + ".permit";
+
+    private final ObjectMapper objectMapper;
+    // A stream keeps its transaction and pooled connection until the client has read the last row, so the
+    // number of open streams is capped well below the pool size instead of being left to the request limit
+    private final Semaphore permits;
+
+    public NdjsonStreamFacade(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${web.streaming.max-concurrent-streams:4}") int maxConcurrentStreams) {
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrentStreams);
+        Gauge.builder("web.streaming.active", permits, semaphore -> maxConcurrentStreams - semaphore.availablePermits())
+                .description("NDJSON responses being streamed")
+                .register(meterRegistry);
+    }
+
+    // Writes one JSON line per row as the producer hands them over, so the response is never built in memory.
+    // Called on the request thread: when all streams are taken the request fails fast with 503
+    public <T> StreamingResponseBody stream(Consumer<Consumer<T>> producer) {
+        if (!permits.tryAcquire()) {
+            throw new StreamingBusyException("Too many training histories are being streamed, try again later");
+        }
+        Runnable release = releaseOnce();
+        registerRelease(release);
+        return out -> {
+            try {
+                producer.accept(row -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.flush();
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    // The body may never run, e.g. when the async request times out before it is scheduled; the permit is
+    // then returned when async processing completes
+    private static void registerRelease(Runnable release) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            WebAsyncUtils.getAsyncManager(servletAttributes.getRequest()).registerCallableInterceptor(PERMIT_INTERCEPTOR_KEY,
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <V> void afterCompletion(NativeWebRequest request, Callable<V> task) {
+                            release.run();
+                        }
+                    });
+        }
+    }
+}
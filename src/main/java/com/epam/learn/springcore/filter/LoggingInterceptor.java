@@ -5,31 +5,54 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.HandlerMapping;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// One key=value access record per request, written when the request completes. Successful requests are
+// sampled, server errors and slow requests are always logged; sampleRate tells how many requests a record stands for
 @Component
 public class LoggingInterceptor implements HandlerInterceptor {
-    private static final Logger logger = LoggerFactory.getLogger(LoggingInterceptor.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+    private static final String START_NANOS_ATTRIBUTE = LoggingInterceptor.class.getName() + ".startNanos";
 
-    @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        logger.info("Incoming request: method={}, uri={}, transactionId={}",
-                request.getMethod(), request.getRequestURI(), MDC.get("transactionId"));
-        return true;
+    private final double sampleRate;
+    private final long slowThresholdMillis;
+
+    public LoggingInterceptor(@Value("${logging.access.sample-rate:0.1}") double sampleRate,
+                              @Value("${logging.access.slow-threshold-ms:1000}") long slowThresholdMillis) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMillis = slowThresholdMillis;
     }
 
     @Override
-    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
-                           ModelAndView modelAndView) {
-        logger.info("Response: status={}, transactionId={}", response.getStatus(), MDC.get("transactionId"));
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async requests pass here again on their second dispatch, the first start time is the one that counts
+        if (request.getAttribute(START_NANOS_ATTRIBUTE) == null) {
+            request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        if (ex != null) {
-            logger.error("Request completed with error: transactionId={}, error={}", MDC.get("transactionId"), ex.getMessage());
+        if (!accessLogger.isInfoEnabled() || !(request.getAttribute(START_NANOS_ATTRIBUTE) instanceof Long startNanos)) {
+            return;
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        int status = response.getStatus();
+        boolean alwaysLogged = ex != null || status >= 500 || durationMillis >= slowThresholdMillis;
+        if (!alwaysLogged && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
         }
+        accessLogger.info("method={} uri={} route={} status={} durationMs={} transactionId={} sampleRate={}{}",
+                request.getMethod(), request.getRequestURI(),
+                request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), status, durationMillis,
+                MDC.get("transactionId"), alwaysLogged ? 1.0 : sampleRate,
+                ex != null ? " error=" + ex.getClass().getSimpleName() : "");
     }
 }
@@ -0,0 +1,111 @@
+package com.epam.learn.springcore.filter;
+
+import com.epam.learn.springcore.monitoring.SqlExecutionTracker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// Runs right after TransactionFilter, so the security filters' queries are counted too and the
+// transactionId is already in MDC. The SQL of streamed (async) responses is not attributed to the request
+@Component
+@ConditionalOnProperty(name = "monitoring.sql.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Log4j2
+public class SqlMetricsFilter extends OncePerRequestFilter {
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SqlExecutionTracker sqlExecutionTracker;
+    private final MeterRegistry meterRegistry;
+    private final int statementsWarnThreshold;
+    private final ConcurrentMap<MeterKey, RequestMeters> meters = new ConcurrentHashMap<>();
+
+    public SqlMetricsFilter(SqlExecutionTracker sqlExecutionTracker, MeterRegistry meterRegistry,
+                            @Value("${monitoring.sql.statements-warn-threshold:25}") int statementsWarnThreshold) {
+        this.sqlExecutionTracker = sqlExecutionTracker;
+        this.meterRegistry = meterRegistry;
+        this.statementsWarnThreshold = statementsWarnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlExecutionTracker.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, sqlExecutionTracker.end());
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlExecutionTracker.RequestStats stats) {
+        // The route pattern rather than the raw URI keeps the number of tag values, and so of cached meters, bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        RequestMeters requestMeters = meters.computeIfAbsent(
+                new MeterKey(request.getMethod(), pattern != null ? pattern.toString() : UNKNOWN_URI), this::register);
+        requestMeters.statements().record(stats.getStatements());
+        requestMeters.rows().record(stats.getRows());
+        requestMeters.jdbcTime().record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() >= statementsWarnThreshold) {
+            log.warn("Request {} {} executed {} SQL statements fetching {} rows in {} ms, transactionId={}",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()), MDC.get("transactionId"));
+        } else {
+            log.debug("Request {} {} executed {} SQL statements fetching {} rows in {} ms, transactionId={}",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()), MDC.get("transactionId"));
+        }
+    }
+
+    // Built once per method and route instead of going through the builders and the registry on every request
+    private RequestMeters register(MeterKey key) {
+        Tags tags = Tags.of("method", key.method(), "uri", key.uri());
+        return new RequestMeters(
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .description("SQL statements executed per request")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1.0)
+                        .maximumExpectedValue(1_000.0)
+                        .register(meterRegistry),
+                DistributionSummary.builder("http.server.requests.sql.rows")
+                        .description("Result set rows fetched per request")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1.0)
+                        .maximumExpectedValue(100_000.0)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.sql.time")
+                        .description("Time spent in JDBC per request")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry));
+    }
+
+    private record MeterKey(String method, String uri) {
+    }
+
+    private record RequestMeters(DistributionSummary statements, DistributionSummary rows, Timer jdbcTime) {
+    }
+}
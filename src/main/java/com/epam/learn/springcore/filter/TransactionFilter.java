@@ -1,24 +1,72 @@
 package com.epam.learn.springcore.filter;
 
-import jakarta.servlet.*;
+import com.epam.learn.springcore.monitoring.TransactionIdGenerator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+// Takes the transactionId from X-Request-Id or the trace id of a W3C traceparent header, generates one otherwise,
+// and echoes it back in X-Request-Id. Incoming ids end up in every log line, so only short, plain tokens are accepted
 @Component
-public class TransactionFilter implements Filter {
+@Order(Ordered.HIGHEST_PRECEDENCE) // first, so every other filter already logs with the transactionId
+@RequiredArgsConstructor
+public class TransactionFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final String TRACEPARENT_HEADER = "traceparent";
+    private static final String TRANSACTION_ID_ATTRIBUTE = TransactionFilter.class.getName() + ".transactionId";
+    private static final String MDC_KEY = "transactionId";
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("[A-Za-z0-9._:-]{1,128}");
+    private static final Pattern TRACEPARENT_PATTERN = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}");
+    private static final String INVALID_TRACE_ID = "0".repeat(32);
+
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 
     @Override
-    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
-        String transactionId = UUID.randomUUID().toString();
-        MDC.put("transactionId", transactionId);
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // the async dispatch that completes a streamed response keeps the id of its original request
+        String transactionId = (String) request.getAttribute(TRANSACTION_ID_ATTRIBUTE);
+        if (transactionId == null) {
+            transactionId = resolveTransactionId(request);
+            request.setAttribute(TRANSACTION_ID_ATTRIBUTE, transactionId);
+            response.setHeader(REQUEST_ID_HEADER, transactionId);
+        }
+        MDC.put(MDC_KEY, transactionId);
         try {
-            filterChain.doFilter(servletRequest, servletResponse);
+            filterChain.doFilter(request, response);
         } finally {
-            MDC.remove("transactionId");
+            MDC.remove(MDC_KEY);
         }
     }
 
+    private String resolveTransactionId(HttpServletRequest request) {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId != null && REQUEST_ID_PATTERN.matcher(requestId).matches()) {
+            return requestId;
+        }
+        String traceparent = request.getHeader(TRACEPARENT_HEADER);
+        if (traceparent != null) {
+            Matcher matcher = TRACEPARENT_PATTERN.matcher(traceparent);
+            if (matcher.matches() && !INVALID_TRACE_ID.equals(matcher.group(1))) {
+                return matcher.group(1);
+            }
+        }
+        return transactionIdGenerator.nextId();
+    }
 }
@@ -1,22 +1,45 @@
 package com.epam.learn.springcore.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenUtil {
     private static final long JWT_EXPIRATION_TIME = 5 * 60 * 60;
+    private static final long CLAIMS_CACHE_MAX_SIZE = 10_000;
     private final String secret = "gym-management-system-application";
     private final SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+    private final JwtParser jwtParser = Jwts.parser().verifyWith(secretKey).build();
+    // Verified claims keyed by token hash, each entry lives until the token itself expires
+    private final Cache<String, Claims> claimsCache = Caffeine.newBuilder()
+            .maximumSize(CLAIMS_CACHE_MAX_SIZE)
+            .expireAfter(new ClaimsExpiry())
+            .recordStats()
+            .build();
+
+    public JwtTokenUtil(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+    }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -33,12 +56,12 @@ public class JwtTokenUtil {
         return getClaimFromToken(jwtToken, Claims::getSubject);
     }
 
+    public Date getExpirationDateFromToken(String jwtToken) {
+        return getClaimFromToken(jwtToken, Claims::getExpiration);
+    }
+
     private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        final Claims claims = claimsCache.get(hashToken(token), key -> jwtParser.parseSignedClaims(token).getPayload());
         return claimsResolver.apply(claims);
     }
 
@@ -48,8 +71,38 @@ public class JwtTokenUtil {
     }
 
     private boolean isTokenExpired(String token) {
-        final Date expiration = getClaimFromToken(token, Claims::getExpiration);
+        final Date expiration = getExpirationDateFromToken(token);
         return expiration.before(new Date());
     }
 
+    public static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return 0;
+            }
+            long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
 }
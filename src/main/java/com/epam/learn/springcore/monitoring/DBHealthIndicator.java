@@ -1,14 +1,19 @@
 package com.epam.learn.springcore.monitoring;
 
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.SQLException;
 
+// Reports the state of the (primary) connection pool instead of borrowing a connection, so a health check
+// neither queues behind a saturated pool nor adds to its load. The pool validates its connections itself and
+// keeps at least minimum-idle of them open, so a started pool without any connection cannot reach the database
 @Component
 @RequiredArgsConstructor
 public class DBHealthIndicator implements HealthIndicator {
@@ -16,14 +21,31 @@ public class DBHealthIndicator implements HealthIndicator {
 
     @Override
     public Health health() {
-        try (Connection connection = dataSource.getConnection()) {
-            if (connection.isValid(1)) { // You can adjust the timeout (1 second here)
-                return Health.up().withDetail("database", "MySQL").withDetail("status", "Connected!").build();
-            } else {
-                return Health.down().withDetail("database", "MySQL").withDetail("status", "Invalid connection!").build();
-            }
-        } catch (SQLException e) {
-            return Health.down(e).withDetail("database", "MySQL").withDetail("status", "Down").build();
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return Health.unknown().withDetail("database", "MySQL").withDetail("status", "Connection pool not started").build();
         }
+        int active = pool.getActiveConnections();
+        int total = pool.getTotalConnections();
+        int awaiting = pool.getThreadsAwaitingConnection();
+        int max = hikari.getMaximumPoolSize();
+        Health.Builder health;
+        if (total == 0) {
+            health = Health.down().withDetail("status", "No connections!");
+        } else if (awaiting > 0) {
+            health = Health.up().withDetail("status", "Saturated!");
+        } else {
+            health = Health.up().withDetail("status", "Connected!");
+        }
+        return health.withDetail("database", "MySQL")
+                .withDetail("pool", hikari.getPoolName())
+                .withDetail("active", active)
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("total", total)
+                .withDetail("max", max)
+                .withDetail("threadsAwaitingConnection", awaiting)
+                .withDetail("saturation", Math.round(active * 100.0 / max) / 100.0)
+                .build();
     }
 }
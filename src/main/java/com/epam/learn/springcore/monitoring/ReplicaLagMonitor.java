@@ -0,0 +1,90 @@
+package com.epam.learn.springcore.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Probes the read replicas on a schedule. A replica serves reads only while its lag is known and at most
+// max-lag-seconds; an unreachable replica, or one that is not replicating, drops out until a later check
+@Log4j2
+public class ReplicaLagMonitor {
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, String lagColumn, long maxLagSeconds,
+                             MeterRegistry meterRegistry) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        for (String name : this.replicas.keySet()) {
+            lagSeconds.put(name, Double.NaN);
+            Gauge.builder("datasource.replica.lag", lagSeconds, lags -> lags.get(name))
+                    .tag("replica", name).baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", this, monitor -> monitor.healthyReplicas.contains(name) ? 1 : 0)
+                    .tag("replica", name).register(meterRegistry);
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    public DataSource getReplica(String name) {
+        return replicas.get(name);
+    }
+
+    // A replica that refused a connection is skipped until the next check finds it healthy again
+    public void markUnavailable(String name) {
+        healthyReplicas = healthyReplicas.stream().filter(replica -> !replica.equals(name)).toList();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:5000}")
+    public void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            double lag = probeLag(replica.getKey(), replica.getValue());
+            lagSeconds.put(replica.getKey(), lag);
+            if (lag <= maxLagSeconds) { // false for NaN
+                healthy.add(replica.getKey());
+            } else if (healthyReplicas.contains(replica.getKey())) {
+                log.warn("Replica {} is lagging or unreachable (lag {}s), reads fall back to other replicas or the primary",
+                        replica.getKey(), lag);
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    // NaN when the lag is unknown: the replica is unreachable, not replicating or its replication thread stopped
+    private double probeLag(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return Double.NaN;
+            }
+            long lag = resultSet.getLong(lagColumn);
+            return resultSet.wasNull() ? Double.NaN : lag;
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Lag check of replica {} failed", name, e);
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.epam.learn.springcore.monitoring;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Listens on the proxied DataSource. Statements, fetched rows and JDBC time are added up for the request
+// bound to the current thread, and statements slower than the threshold are logged without their bind values
+@Component
+@Log4j2
+public class SqlExecutionTracker implements QueryExecutionListener, MethodExecutionListener {
+    private static final String START_NANOS = "startNanos";
+    private static final ThreadLocal<RequestStats> currentRequest = new ThreadLocal<>();
+
+    private final long slowQueryThresholdMillis;
+
+    public SqlExecutionTracker(@Value("${monitoring.sql.slow-query-threshold-ms:500}") long slowQueryThresholdMillis) {
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    public void begin() {
+        currentRequest.set(new RequestStats());
+    }
+
+    public RequestStats end() {
+        RequestStats stats = currentRequest.get();
+        currentRequest.remove();
+        return stats != null ? stats : new RequestStats();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedNanos = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+        RequestStats stats = currentRequest.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.jdbcNanos += elapsedNanos;
+        }
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        if (elapsedMillis >= slowQueryThresholdMillis) {
+            // Only the SQL text with its ? placeholders, bind values can carry personal data
+            log.warn("Slow query took {} ms, transactionId={}, batch size={}, bind parameters redacted: {}",
+                    elapsedMillis, MDC.get("transactionId"), execInfo.isBatch() ? execInfo.getBatchSize() : 1,
+                    queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet && Boolean.TRUE.equals(executionContext.getResult())
+                && "next".equals(executionContext.getMethod().getName())) {
+            RequestStats stats = currentRequest.get();
+            if (stats != null) {
+                stats.rows++;
+            }
+        }
+    }
+
+    // Only ever touched by the thread serving the request
+    @Getter
+    public static class RequestStats {
+        private int statements;
+        private long rows;
+        private long jdbcNanos;
+    }
+}
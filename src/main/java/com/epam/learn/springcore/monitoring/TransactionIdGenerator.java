@@ -0,0 +1,34 @@
+package com.epam.learn.springcore.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Transaction ids only correlate log lines, so they have to be unique rather than unpredictable: a node prefix
+// and a counter instead of UUID.randomUUID(), which draws from the shared SecureRandom on every request
+@Component
+public class TransactionIdGenerator {
+    private final String prefix;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public TransactionIdGenerator(@Value("${correlation.node-id:}") String nodeId) {
+        String node = StringUtils.hasText(nodeId) ? nodeId : defaultNodeId();
+        // the start time tells ids of a restarted node apart from the ones it issued before the restart
+        this.prefix = node + "-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    }
+
+    public String nextId() {
+        return prefix + Long.toString(sequence.incrementAndGet(), 36);
+    }
+
+    private static String defaultNodeId() {
+        String hostname = System.getenv("HOSTNAME");
+        String pid = Long.toString(ProcessHandle.current().pid(), 36);
+        if (!StringUtils.hasText(hostname)) {
+            return pid;
+        }
+        return hostname.replaceAll("[^A-Za-z0-9]", "") + "." + pid;
+    }
+}
@@ -0,0 +1,65 @@
+package com.epam.learn.springcore.service;
+
+import com.epam.learn.springcore.dto.TrainerResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Short-lived cache of the trainers a trainee can still pick. Entries of a trainee are dropped when its
+// assignments change, everything is dropped when a trainer is (de)activated or updated; the TTL bounds
+// staleness for any change made outside this instance
+@Component
+public class AvailableTrainersCache {
+    private final Cache<Key, List<TrainerResponse>> cache;
+
+    public AvailableTrainersCache(MeterRegistry meterRegistry,
+                                  @Value("${trainers.available.cache.ttl-ms:30000}") long ttlMs,
+                                  @Value("${trainers.available.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "trainers.available");
+    }
+
+    public List<TrainerResponse> get(String traineeUsername, Integer specializationId, Integer page, Integer size,
+                                     Supplier<List<TrainerResponse>> loader) {
+        return cache.get(new Key(traineeUsername, specializationId, page, size), key -> loader.get());
+    }
+
+    public void evictTrainee(String traineeUsername) {
+        afterCommit(() -> cache.asMap().keySet().removeIf(key -> key.traineeUsername().equals(traineeUsername)));
+    }
+
+    public void evictAll() {
+        afterCommit(cache::invalidateAll);
+    }
+
+    // Evicting inside the transaction would let a concurrent read re-cache the not yet committed state,
+    // so within a transaction the eviction waits for the commit and is dropped on rollback
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private record Key(String traineeUsername, Integer specializationId, Integer page, Integer size) {
+    }
+}
@@ -1,42 +1,178 @@
 package com.epam.learn.springcore.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Failed logins are throttled per username and per client IP. Each key keeps the timestamps of its last
+// failures in a small ring, so "max attempts within the window" is an exact sliding window. Both stores are
+// bounded caches; entries expire once neither the window nor the lock needs them anymore
 @Service
+@Log4j2
 public class BruteForceProtectionService {
-    private static final int MAX_ATTEMPT = 3;
-    private static final long LOCK_TIME = TimeUnit.MINUTES.toMillis(5);
+    private final Throttle usernameThrottle;
+    private final Throttle ipThrottle;
 
-    private final Map<String, Integer> attemptsCache = new ConcurrentHashMap<>();
-    private final Map<String, Long> lockCache = new ConcurrentHashMap<>();
+    public BruteForceProtectionService(MeterRegistry meterRegistry,
+                                       @Value("${security.login.max-attempts:3}") int maxAttempts,
+                                       @Value("${security.login.ip-max-attempts:20}") int ipMaxAttempts,
+                                       @Value("${security.login.window-ms:300000}") long windowMillis,
+                                       @Value("${security.login.lock-ms:300000}") long lockMillis,
+                                       @Value("${security.login.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.usernameThrottle = new Throttle("username", maxAttempts, windowMillis, lockMillis, maxTrackedKeys, meterRegistry);
+        this.ipThrottle = new Throttle("ip", ipMaxAttempts, windowMillis, lockMillis, maxTrackedKeys, meterRegistry);
+    }
 
-    public void loginSucceeded(String key) {
-        attemptsCache.remove(key); // Clear failed attempts on successful login
-        lockCache.remove(key); // Unlock user on successful login
+    public void loginSucceeded(String username, String ip) {
+        // The IP keeps its failures: one valid account must not reset the counter of a client spraying others
+        usernameThrottle.reset(username);
     }
 
-    public void loginFailed(String key) {
-        int attempts = attemptsCache.getOrDefault(key, 0);
-        attempts++;
-        attemptsCache.put(key, attempts);
-        if (attempts >= MAX_ATTEMPT) {
-            lockCache.put(key, System.currentTimeMillis()); // Lock user if max attempts exceeded
+    public void loginFailed(String username, String ip) {
+        if (usernameThrottle.failed(username, now())) {
+            log.warn("Too many failed logins for user {}, locking it", username);
+        }
+        if (ipThrottle.failed(ip, now())) {
+            log.warn("Too many failed logins from {}, locking it", ip);
         }
     }
 
-    public boolean isBlocked(String key) {
-        if (!lockCache.containsKey(key)) {
-            return false;
+    public boolean isBlocked(String username, String ip) {
+        long now = now();
+        return usernameThrottle.isLocked(username, now) || ipThrottle.isLocked(ip, now);
+    }
+
+    @Scheduled(fixedDelayString = "${security.login.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = now();
+        usernameThrottle.sweep(now);
+        ipThrottle.sweep(now);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static final class Throttle {
+        private final int maxAttempts;
+        private final long windowMillis;
+        private final long lockMillis;
+        private final Cache<String, FailureWindow> windows;
+        private final AtomicLong lockedKeys = new AtomicLong();
+
+        Throttle(String keyType, int maxAttempts, long windowMillis, long lockMillis, long maxTrackedKeys,
+                 MeterRegistry meterRegistry) {
+            this.maxAttempts = maxAttempts;
+            this.windowMillis = windowMillis;
+            this.lockMillis = lockMillis;
+            this.windows = Caffeine.newBuilder()
+                    .maximumSize(maxTrackedKeys)
+                    .expireAfter(new FailureWindowExpiry(windowMillis))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, windows, "login.failures." + keyType);
+            Gauge.builder("login.throttle.tracked", windows, Cache::estimatedSize)
+                    .description("Keys with recent failed logins")
+                    .tag("key", keyType)
+                    .register(meterRegistry);
+            Gauge.builder("login.throttle.locked", lockedKeys, AtomicLong::get)
+                    .description("Keys locked out at the last sweep")
+                    .tag("key", keyType)
+                    .register(meterRegistry);
+        }
+
+        // compute runs atomically per key, so concurrent failures never lose an increment
+        boolean failed(String key, long now) {
+            if (key == null) {
+                return false;
+            }
+            boolean[] locked = new boolean[1];
+            windows.asMap().compute(key, (k, current) -> {
+                FailureWindow updated = current != null ? current : new FailureWindow(maxAttempts);
+                locked[0] = updated.record(now, windowMillis, lockMillis);
+                return updated;
+            });
+            return locked[0];
+        }
+
+        boolean isLocked(String key, long now) {
+            if (key == null) {
+                return false;
+            }
+            FailureWindow window = windows.getIfPresent(key);
+            return window != null && window.lockedUntil > now;
+        }
+
+        void reset(String key) {
+            if (key != null) {
+                windows.invalidate(key);
+            }
+        }
+
+        void sweep(long now) {
+            windows.cleanUp();
+            lockedKeys.set(windows.asMap().values().stream().filter(window -> window.lockedUntil > now).count());
+        }
+    }
+
+    private static final class FailureWindow {
+        private final long[] failures;
+        private int next;
+        private int count;
+        private long lastFailure;
+        private volatile long lockedUntil;
+
+        FailureWindow(int maxAttempts) {
+            this.failures = new long[maxAttempts];
         }
-        long lockTime = lockCache.get(key);
-        if (System.currentTimeMillis() - lockTime > LOCK_TIME) {
-            lockCache.remove(key); // Remove lock if lock time has expired
+
+        // The key gets locked when the oldest of its last maxAttempts failures is still inside the window.
+        // Returns true when this failure locked the key
+        boolean record(long now, long windowMillis, long lockMillis) {
+            failures[next] = now;
+            next = (next + 1) % failures.length;
+            count = Math.min(count + 1, failures.length);
+            lastFailure = now;
+            if (count == failures.length && now - failures[next] <= windowMillis && lockedUntil <= now) {
+                lockedUntil = now + lockMillis;
+                return true;
+            }
             return false;
         }
-        return true; // User is still locked
+
+        long expiresAt(long windowMillis) {
+            return Math.max(lastFailure + windowMillis, lockedUntil);
+        }
+    }
+
+    private record FailureWindowExpiry(long windowMillis) implements Expiry<String, FailureWindow> {
+        @Override
+        public long expireAfterCreate(String key, FailureWindow window, long currentTime) {
+            return remaining(window);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, FailureWindow window, long currentTime, long currentDuration) {
+            return remaining(window);
+        }
+
+        @Override
+        public long expireAfterRead(String key, FailureWindow window, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long remaining(FailureWindow window) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, window.expiresAt(windowMillis) - System.currentTimeMillis()));
+        }
     }
 }
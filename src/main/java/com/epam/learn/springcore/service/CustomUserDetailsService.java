@@ -2,26 +2,52 @@ package com.epam.learn.springcore.service;
 
 import com.epam.learn.springcore.dao.UserRepository;
 import com.epam.learn.springcore.entity.User;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
+    private static final Duration CACHE_TTL = Duration.ofMinutes(5);
+    private static final long CACHE_MAX_SIZE = 10_000;
+
     private final UserRepository userRepository;
+    private final Cache<String, UserDetails> userDetailsCache = Caffeine.newBuilder()
+            .expireAfterWrite(CACHE_TTL)
+            .maximumSize(CACHE_MAX_SIZE)
+            .recordStats()
+            .build();
+
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "user.details");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.get(username, this::loadFromDatabase);
+        // Hand out a copy so that credential erasure by callers never reaches the cached instance
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    public void evictUser(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Username " + username + " not found"));
-        log.info("Inside loadUserByUsername() method - printing the user details {}", user);
+        log.debug("Loaded user details of {}", user.getUsername()); // never the entity, its toString includes the password hash
         return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
     }
 }
@@ -0,0 +1,136 @@
+package com.epam.learn.springcore.service;
+
+import com.epam.learn.springcore.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// BCrypt is CPU bound, so it runs on its own pool sized to the CPU count instead of on Tomcat workers.
+// When the pool and its queue are full, callers get a 503 instead of piling up behind the hashing work.
+// Bulk imports never have more tasks in the pool than it has threads, so the queue stays free for logins
+// and single registrations
+@Service
+@Log4j2
+public class PasswordHashingService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore bulkPermits;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer bulkEncodeTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${security.password.hashing.pool-size:0}") int poolSize,
+                                  @Value("${security.password.hashing.queue-capacity:100}") int queueCapacity,
+                                  @Value("${security.password.hashing.timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.bulkPermits = new Semaphore(threads);
+        this.timeoutMillis = timeoutMillis;
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.latency")
+                .description("Time from submitting a hashing task until its result is available")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.latency")
+                .description("Time from submitting a hashing task until its result is available")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bulkEncodeTimer = Timer.builder("password.hashing.latency")
+                .description("Time from submitting a hashing task until its result is available")
+                .tag("operation", "encode-bulk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return encodeTimer.record(() -> await(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> await(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Bulk imports are not rejected: the caller waits for a bulk permit, and a task that still does not fit
+    // into the queue is hashed by the caller itself
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            Supplier<String> task = () -> passwordEncoder.encode(rawPassword);
+            try {
+                bulkPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PasswordHashingBusyException("Password operation interrupted");
+            }
+            long submitted = System.nanoTime();
+            CompletableFuture<String> hash;
+            try {
+                hash = CompletableFuture.supplyAsync(task, executor);
+            } catch (RejectedExecutionException e) {
+                bulkPermits.release();
+                hash = CompletableFuture.completedFuture(task.get());
+                bulkEncodeTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                hashes.add(hash);
+                continue;
+            }
+            hashes.add(hash.whenComplete((result, failure) -> {
+                bulkPermits.release();
+                bulkEncodeTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            }));
+        }
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing pool is saturated, rejecting request");
+            throw new PasswordHashingBusyException("Too many concurrent password operations, please retry later");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password operation timed out, please retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingBusyException("Password operation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,19 +1,121 @@
 package com.epam.learn.springcore.service;
 
+import com.epam.learn.springcore.dao.TokenRevocationStore;
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Service
+@Log4j2
 public class TokenBlacklistService {
-    private final Set<String> tokenBlacklist = new HashSet<>();
+    private static final int BLOOM_FILTER_EXPECTED_TOKENS = 100_000;
+    private static final double BLOOM_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRevocationStore revocationStore;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final Object bloomFilterLock = new Object();
+    private volatile BloomFilter bloomFilter;
+
+    public TokenBlacklistService(TokenRevocationStore revocationStore, JwtTokenUtil jwtTokenUtil,
+                                 @Value("${security.jwt.revocation.bloom-filter:false}") boolean bloomFilterEnabled) {
+        this.revocationStore = revocationStore;
+        this.jwtTokenUtil = jwtTokenUtil;
+        if (bloomFilterEnabled) {
+            this.bloomFilter = buildBloomFilter(revocationStore.findActiveTokenHashes());
+        }
+    }
 
     public void addTokenToBlacklist(String token) {
-        tokenBlacklist.add(token);
+        Date expiration;
+        try {
+            expiration = jwtTokenUtil.getExpirationDateFromToken(token);
+        } catch (ExpiredJwtException e) {
+            return; // Expired tokens are rejected anyway
+        }
+        String tokenHash = JwtTokenUtil.hashToken(token);
+        if (bloomFilter == null) {
+            revocationStore.revoke(tokenHash, expiration.toInstant());
+            return;
+        }
+        // Serialized with rebuilds so that a revocation can't slip between the store snapshot and the filter swap
+        synchronized (bloomFilterLock) {
+            revocationStore.revoke(tokenHash, expiration.toInstant());
+            bloomFilter.put(tokenHash);
+        }
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return tokenBlacklist.contains(token);
+        String tokenHash = JwtTokenUtil.hashToken(token);
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(tokenHash)) {
+            return false;
+        }
+        return revocationStore.isRevoked(tokenHash);
+    }
+
+    // Also rebuilds the Bloom filter so that it forgets expired tokens and picks up revocations made by other nodes
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.sweep-interval-ms:60000}")
+    public void evictExpiredTokens() {
+        revocationStore.removeExpired();
+        if (bloomFilter != null) {
+            synchronized (bloomFilterLock) {
+                bloomFilter = buildBloomFilter(revocationStore.findActiveTokenHashes());
+            }
+        }
+    }
+
+    private static BloomFilter buildBloomFilter(Collection<String> tokenHashes) {
+        BloomFilter filter = new BloomFilter(Math.max(BLOOM_FILTER_EXPECTED_TOKENS, tokenHashes.size() * 2),
+                BLOOM_FILTER_FALSE_POSITIVE_RATE);
+        tokenHashes.forEach(filter::put);
+        log.info("Token revocation Bloom filter rebuilt with {} tokens", tokenHashes.size());
+        return filter;
+    }
+
+    // Keys are already SHA-256 hex digests, so two slices of them serve as independent hash functions
+    private static class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long size = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((size + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String tokenHash) {
+            long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+            long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(index);
+                } while ((current & mask) == 0 && !bits.compareAndSet(index, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String tokenHash) {
+            long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+            long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
@@ -7,61 +7,136 @@ import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.entity.Trainee;
 import com.epam.learn.springcore.entity.Trainer;
 import com.epam.learn.springcore.entity.Training;
+import com.epam.learn.springcore.entity.TrainingType;
 import com.epam.learn.springcore.entity.User;
 import com.epam.learn.springcore.exception.TraineeNotFoundException;
 import com.epam.learn.springcore.exception.TrainerNotFoundException;
 import com.epam.learn.springcore.specification.TraineeTrainingSpecification;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class TraineeService {
+    private static final int DEFAULT_TRAINERS_PAGE_SIZE = 20;
+    private static final int MAX_TRAINERS_PAGE_SIZE = 100;
+    private static final String BULK_ROW_FAILED = "Registration failed, the row was not imported";
+
     private final TraineeRepository traineeRepository;
     private final UserService userService;
     private final TrainingRepository trainingRepository;
     private final TrainerRepository trainerRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final PasswordHashingService passwordHashingService;
+    private final TrainingTypeService trainingTypeService;
+    private final AvailableTrainersCache availableTrainersCache;
 
-    @Transactional
+    // Not transactional on purpose: every attempt saves in its own transaction, so a username taken
+    // by a concurrent registration can be retried instead of poisoning the surrounding transaction
     public UserResponse createTrainee(TraineeRegistrationRequest traineeRegistrationRequest) {
-        User user = new User();
-        user.setFirstName(traineeRegistrationRequest.getFirstName());
-        user.setLastName(traineeRegistrationRequest.getLastName());
-        log.info("Calculating trainee username");
-        user.setUsername(userService.calculateUsername(traineeRegistrationRequest.getFirstName(), traineeRegistrationRequest.getLastName()));
-        log.info("Trainee username calculated: {}", user.getUsername());
-        log.info("Generating trainee password");
+        log.debug("Generating trainee password");
         String password = userService.generateRandomPassword();
-        user.setPassword(passwordEncoder.encode(password));
-        log.info("Trainee password generated: {}", user.getPassword());
-        user.setIsActive(false);
-        log.info("Creating trainee: {}", user.getUsername());
-        Trainee trainee = new Trainee();
-        trainee.setDateOfBirth(traineeRegistrationRequest.getDateOfBirth());
-        trainee.setAddress(traineeRegistrationRequest.getAddress());
-        trainee.setUser(user);
-        traineeRepository.save(trainee);
-        log.info("Successfully created trainee: {}", user.getUsername());
-        UserResponse userResponse = new UserResponse();
-        userResponse.setUsername(trainee.getUser().getUsername());
-        userResponse.setPassword(password);
-        return userResponse;
+        String encodedPassword = passwordHashingService.encode(password);
+        for (int attempt = 1; ; attempt++) {
+            User user = new User();
+            user.setFirstName(traineeRegistrationRequest.getFirstName());
+            user.setLastName(traineeRegistrationRequest.getLastName());
+            log.debug("Calculating trainee username");
+            user.setUsername(userService.calculateUsername(traineeRegistrationRequest.getFirstName(), traineeRegistrationRequest.getLastName()));
+            log.debug("Trainee username calculated: {}", user.getUsername());
+            user.setPassword(encodedPassword);
+            user.setIsActive(false);
+            log.debug("Creating trainee: {}", user.getUsername());
+            Trainee trainee = new Trainee();
+            trainee.setDateOfBirth(traineeRegistrationRequest.getDateOfBirth());
+            trainee.setAddress(traineeRegistrationRequest.getAddress());
+            trainee.setUser(user);
+            try {
+                traineeRepository.save(trainee);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == UserService.USERNAME_ALLOCATION_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Username {} was taken concurrently, retrying", user.getUsername());
+                continue;
+            }
+            log.info("Successfully created trainee: {}", user.getUsername());
+            UserResponse userResponse = new UserResponse();
+            userResponse.setUsername(trainee.getUser().getUsername());
+            userResponse.setPassword(password);
+            return userResponse;
+        }
+    }
+
+    // Bulk registration: usernames are allocated for the whole chunk at once, passwords are hashed in parallel
+    // and the chunk is written with batched inserts. If a username was taken concurrently the chunk falls back
+    // to one by one registration
+    public List<BulkRegistrationResult> createTrainees(List<TraineeRegistrationRequest> requests) {
+        log.info("Creating {} trainees in bulk", requests.size());
+        List<String> passwords = requests.stream().map(request -> userService.generateRandomPassword()).toList();
+        List<String> encodedPasswords = passwordHashingService.encodeAll(passwords);
+        List<String> usernames = userService.calculateUsernames(requests.stream()
+                .map(request -> request.getFirstName() + "." + request.getLastName()).toList());
+        List<Trainee> trainees = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TraineeRegistrationRequest request = requests.get(i);
+            User user = new User();
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setUsername(usernames.get(i));
+            user.setPassword(encodedPasswords.get(i));
+            user.setIsActive(false);
+            Trainee trainee = new Trainee();
+            trainee.setDateOfBirth(request.getDateOfBirth());
+            trainee.setAddress(request.getAddress());
+            trainee.setUser(user);
+            trainees.add(trainee);
+        }
+        try {
+            traineeRepository.saveAll(trainees);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk insert of {} trainees hit a taken username, registering them one by one", requests.size());
+            return requests.stream().map(this::createTraineeForBulk).toList();
+        }
+        log.info("Successfully created {} trainees in bulk", requests.size());
+        List<BulkRegistrationResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(BulkRegistrationResult.builder().username(usernames.get(i)).password(passwords.get(i)).build());
+        }
+        return results;
+    }
+
+    private BulkRegistrationResult createTraineeForBulk(TraineeRegistrationRequest request) {
+        try {
+            UserResponse userResponse = createTrainee(request);
+            return BulkRegistrationResult.builder().username(userResponse.getUsername()).password(userResponse.getPassword()).build();
+        } catch (DataIntegrityViolationException e) {
+            return BulkRegistrationResult.builder().error("Unable to allocate a unique username").build();
+        } catch (RuntimeException e) {
+            // Only this row failed, the rows registered before it are committed and keep their credentials
+            log.error("Bulk registration of trainee {} {} failed", request.getFirstName(), request.getLastName(), e);
+            return BulkRegistrationResult.builder().error(BULK_ROW_FAILED).build();
+        }
     }
 
     @Transactional
     public TraineeUpdateResponse updateTrainee(TraineeUpdateRequest traineeUpdateRequest) {
-        Trainee trainee = traineeRepository.findByUsername(traineeUpdateRequest.getUsername())
+        // The response lists the trainers, so they are loaded with the trainee
+        Trainee trainee = traineeRepository.findProfileByUsername(traineeUpdateRequest.getUsername())
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + traineeUpdateRequest.getUsername() + " not found"));
-        log.info("Updating trainee: {}", trainee.getUser().getUsername());
+        log.debug("Updating trainee: {}", trainee.getUser().getUsername());
         trainee.getUser().setFirstName(traineeUpdateRequest.getFirstName());
         trainee.getUser().setLastName(traineeUpdateRequest.getLastName());
         trainee.setDateOfBirth(traineeUpdateRequest.getDateOfBirth());
@@ -71,59 +146,161 @@ public class TraineeService {
         return convertTraineeToTraineeUpdateResponse(updatedTrainee);
     }
 
+    @Transactional
     public void deleteTrainee(String username) {
-        log.info("Deleting trainee: {}", username);
+        log.debug("Deleting trainee: {}", username);
         Trainee trainee = traineeRepository.findByUsername(username)
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + username + " not found"));
+        List<Integer> trainerIds = trainerRepository.findIdsByTraineeId(trainee.getId());
+        if (!trainerIds.isEmpty()) {
+            trainerRepository.incrementVersions(trainerIds);
+        }
         traineeRepository.delete(trainee);
+        userDetailsService.evictUser(username);
+        availableTrainersCache.evictTrainee(username);
         log.info("Successfully deleted trainee: {}", username);
     }
 
+    @Transactional(readOnly = true)
     public GetTraineeProfileResponse selectTrainee(String username) {
-        log.info("Selecting trainee: {}", username);
-        Trainee trainee = traineeRepository.findByUsername(username)
+        log.debug("Selecting trainee: {}", username);
+        Trainee trainee = traineeRepository.findProfileByUsername(username)
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + username + " not found"));
         return convertTraineeToGetTraineeProfileResponse(trainee);
     }
 
+    // The ETag is computed from the versions of the loaded entities rather than by a separate query, which
+    // could be answered by a different replica than the one the body came from
+    @Transactional(readOnly = true)
+    public ETaggedResponse<GetTraineeProfileResponse> selectTraineeWithETag(String username) {
+        log.debug("Selecting trainee with its ETag: {}", username);
+        Trainee trainee = traineeRepository.findProfileByUsername(username)
+                .orElseThrow(() -> new TraineeNotFoundException("Trainee " + username + " not found"));
+        long linkedVersionSum = trainee.getTrainers().stream()
+                .mapToLong(linked -> linked.getVersion() + linked.getUser().getVersion()).sum();
+        ProfileVersion version = new ProfileVersion(trainee.getVersion(), trainee.getUser().getVersion(),
+                (long) trainee.getTrainers().size(), linkedVersionSum);
+        return new ETaggedResponse<>(convertTraineeToGetTraineeProfileResponse(trainee), version.eTag());
+    }
+
+    @Transactional(readOnly = true)
+    public String getTraineeProfileETag(String username) {
+        return traineeRepository.findProfileVersionByUsername(username)
+                .orElseThrow(() -> new TraineeNotFoundException("Trainee " + username + " not found"))
+                .eTag();
+    }
+
     @Transactional
     public void changeTraineeActivationStatus(ActivationRequest activationRequest) {
         Trainee trainee = traineeRepository.findByUsername(activationRequest.getUsername())
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + activationRequest.getUsername() + " not found"));
-        log.info("Changing activation status of the trainee: {}", trainee.getUser().getUsername());
+        log.debug("Changing activation status of the trainee: {}", trainee.getUser().getUsername());
         trainee.getUser().setIsActive(activationRequest.getIsActive());
         traineeRepository.save(trainee);
+        userDetailsService.evictUser(trainee.getUser().getUsername());
         log.info("Activation status changed successfully for the trainee: {}", trainee.getUser().getUsername());
     }
 
-    public List<TrainerResponse> findActiveTrainersNotAssignedToTrainee(String username) {
-        log.info("Searching active trainers not assigned to trainee: {}", username);
-        return traineeRepository.findActiveTrainersNotAssignedToTrainee(username)
-                .stream().map(this::convertTrainerToTrainerResponse).toList();
+    // Without page and size the whole list is returned. An unknown specialization name matches no trainers.
+    // Not read-only on purpose: the result is cached, and a fill from a lagging replica right after an eviction
+    // would bring the stale list back for the whole TTL
+    @Transactional
+    public List<TrainerResponse> findActiveTrainersNotAssignedToTrainee(String username, String specialization,
+                                                                        Integer page, Integer size) {
+        log.debug("Searching active trainers not assigned to trainee: {}", username);
+        Integer specializationId = null;
+        if (specialization != null && !specialization.isEmpty()) {
+            specializationId = trainingTypeService.findByName(specialization).map(TrainingType::getId).orElse(null);
+            if (specializationId == null) {
+                return List.of();
+            }
+        }
+        Pageable pageable = page == null && size == null ? Pageable.unpaged()
+                : PageRequest.of(page == null ? 0 : Math.max(page, 0),
+                size == null ? DEFAULT_TRAINERS_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_TRAINERS_PAGE_SIZE));
+        Integer filterId = specializationId;
+        return availableTrainersCache.get(username, specializationId, page, size, () -> {
+            Integer traineeId = traineeRepository.findIdByUsername(username)
+                    .orElseThrow(() -> new TraineeNotFoundException("Trainee " + username + " not found"));
+            return traineeRepository.findActiveTrainersNotAssignedToTrainee(traineeId, filterId, pageable);
+        });
     }
 
     @Transactional
     public List<TrainerResponse> updateTraineeTrainers(UpdateTraineeTrainersRequest request) {
-        Trainee trainee = traineeRepository.findByUsername(request.getTraineeUsername())
+        Trainee trainee = traineeRepository.findProfileByUsername(request.getTraineeUsername())
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + request.getTraineeUsername() + " not found"));
-        List<String> trainersNames = request.getTrainerUsernames();
-        List<Trainer> traineeTrainers = trainee.getTrainers();
-        for (String trainerName : trainersNames) {
-            Trainer trainer = trainerRepository.findByUsername(trainerName)
-                    .orElseThrow(() -> new TrainerNotFoundException("Trainer " + trainerName + " not found"));
-            if (!traineeTrainers.contains(trainer) && trainer.getUser().getIsActive()) {
-                traineeTrainers.add(trainer);
+        // All requested trainers come from one query. Trainers already assigned are the same instances as in
+        // trainee.getTrainers(), so the Set skips them and only new join rows are inserted
+        Set<String> trainerNames = new LinkedHashSet<>(request.getTrainerUsernames());
+        Map<String, Trainer> requestedTrainers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Trainer trainer : trainerRepository.findAllByUsernameIn(trainerNames)) {
+            requestedTrainers.put(trainer.getUser().getUsername(), trainer);
+        }
+        Set<Trainer> traineeTrainers = trainee.getTrainers();
+        List<Integer> addedTrainerIds = new ArrayList<>();
+        for (String trainerName : trainerNames) {
+            Trainer trainer = requestedTrainers.get(trainerName);
+            if (trainer == null) {
+                throw new TrainerNotFoundException("Trainer " + trainerName + " not found");
+            }
+            if (trainer.getUser().getIsActive() && traineeTrainers.add(trainer)) {
+                addedTrainerIds.add(trainer.getId());
             }
         }
-        trainee.setTrainers(traineeTrainers);
         traineeRepository.save(trainee);
+        if (!addedTrainerIds.isEmpty()) {
+            trainerRepository.incrementVersions(addedTrainerIds);
+        }
+        availableTrainersCache.evictTrainee(trainee.getUser().getUsername());
         return traineeTrainers.stream().map(this::convertTrainerToTrainerResponse).toList();
     }
 
-    public List<TraineeTrainingResponse> getTraineeTrainings(String username, LocalDate periodFrom, LocalDate periodTo, String trainerName, String trainingType) {
-        Specification<Training> spec = TraineeTrainingSpecification.trainingsByCriteria(username, periodFrom, periodTo, trainerName, trainingType);
-        List<Training> trainings = trainingRepository.findAll(spec);
-        return trainings.stream().map(this::convertTrainingToTraineeTrainingResponse).toList();
+    @Transactional(readOnly = true)
+    public TrainingHistoryPage<TraineeTrainingResponse> getTraineeTrainings(String username, LocalDate periodFrom, LocalDate periodTo,
+                                                                            String trainerName, String trainingType,
+                                                                            String cursor, Integer limit) {
+        Specification<Training> spec = traineeTrainingsSpecification(username, periodFrom, periodTo, trainerName, trainingType);
+        return trainingRepository.findTraineeTrainings(spec, TrainingCursor.decode(cursor), TrainingHistoryPage.pageSize(limit));
+    }
+
+    // The result stream is open for the whole call, so rows are handed to the consumer one by one
+    @Transactional(readOnly = true)
+    public void streamTraineeTrainings(String username, LocalDate periodFrom, LocalDate periodTo, String trainerName,
+                                       String trainingType, Consumer<TraineeTrainingResponse> consumer) {
+        Specification<Training> spec = traineeTrainingsSpecification(username, periodFrom, periodTo, trainerName, trainingType);
+        try (Stream<TraineeTrainingResponse> trainings = trainingRepository.streamTraineeTrainings(spec)) {
+            trainings.forEach(consumer);
+        }
+    }
+
+    // Usernames are resolved to ids once and the training type name from the in-memory snapshot;
+    // an unknown name matches no trainings
+    private Specification<Training> traineeTrainingsSpecification(String username, LocalDate periodFrom, LocalDate periodTo,
+                                                                  String trainerName, String trainingType) {
+        Integer traineeId = traineeRepository.findIdByUsername(username).orElse(null);
+        if (traineeId == null) {
+            return noTrainings();
+        }
+        Integer trainerId = null;
+        if (trainerName != null && !trainerName.isEmpty()) {
+            trainerId = trainerRepository.findIdByUsername(trainerName).orElse(null);
+            if (trainerId == null) {
+                return noTrainings();
+            }
+        }
+        Integer trainingTypeId = null;
+        if (trainingType != null && !trainingType.isEmpty()) {
+            trainingTypeId = trainingTypeService.findByName(trainingType).map(TrainingType::getId).orElse(null);
+            if (trainingTypeId == null) {
+                return noTrainings();
+            }
+        }
+        return TraineeTrainingSpecification.trainingsByCriteria(traineeId, periodFrom, periodTo, trainerId, trainingTypeId);
+    }
+
+    private static Specification<Training> noTrainings() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
     }
 
     public TrainerResponse convertTrainerToTrainerResponse(Trainer trainer) {
@@ -136,16 +313,6 @@ public class TraineeService {
 
     }
 
-    public TraineeTrainingResponse convertTrainingToTraineeTrainingResponse(Training training) {
-        return TraineeTrainingResponse.builder()
-                .trainingName(training.getTrainingName())
-                .trainingDate(training.getTrainingDate())
-                .trainingType(training.getTrainer().getSpecialization().getName())
-                .trainingDuration(training.getTrainingDuration())
-                .trainerUsername(training.getTrainer().getUser().getUsername())
-                .build();
-    }
-
     public TraineeUpdateResponse convertTraineeToTraineeUpdateResponse(Trainee trainee) {
         return TraineeUpdateResponse.builder()
                 .username(trainee.getUser().getUsername())
@@ -154,7 +321,7 @@ public class TraineeService {
                 .dateOfBirth(trainee.getDateOfBirth())
                 .address(trainee.getAddress())
                 .isActive(trainee.getUser().getIsActive())
-                .trainersList(trainee.getTrainers())
+                .trainersList(trainee.getTrainers().stream().map(this::convertTrainerToTrainerListResponse).toList())
                 .build();
     }
 
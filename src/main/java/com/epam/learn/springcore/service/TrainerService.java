@@ -3,119 +3,254 @@ package com.epam.learn.springcore.service;
 import com.epam.learn.springcore.dao.TraineeRepository;
 import com.epam.learn.springcore.dao.TrainerRepository;
 import com.epam.learn.springcore.dao.TrainingRepository;
-import com.epam.learn.springcore.dao.TrainingTypeRepository;
 import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.entity.*;
 import com.epam.learn.springcore.exception.TraineeNotFoundException;
 import com.epam.learn.springcore.exception.TrainerNotFoundException;
 import com.epam.learn.springcore.exception.TrainingTypeNotFoundException;
 import com.epam.learn.springcore.specification.TrainerTrainingSpecification;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class TrainerService {
+    private static final String BULK_ROW_FAILED = "Registration failed, the row was not imported";
+
     private final TrainerRepository trainerRepository;
     private final UserService userService;
-    private final TrainingTypeRepository trainingTypeRepository;
+    private final TrainingTypeService trainingTypeService;
     private final TrainingRepository trainingRepository;
     private final TraineeRepository traineeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final PasswordHashingService passwordHashingService;
+    private final AvailableTrainersCache availableTrainersCache;
 
-    @Transactional
+    // Not transactional on purpose: every attempt saves in its own transaction, so a username taken
+    // by a concurrent registration can be retried instead of poisoning the surrounding transaction
     public UserResponse createTrainer(TrainerRegistrationRequest trainerRegistrationRequest) {
-        User user = new User();
-        user.setFirstName(trainerRegistrationRequest.getFirstName());
-        user.setLastName(trainerRegistrationRequest.getLastName());
-        log.info("Calculating trainer username");
-        user.setUsername(userService.calculateUsername(trainerRegistrationRequest.getFirstName(), trainerRegistrationRequest.getLastName()));
-        log.info("Trainer username calculated: {}", user.getUsername());
-        log.info("Generating trainer password");
-        String password = userService.generateRandomPassword();
-        user.setPassword(passwordEncoder.encode(password));
-        log.info("Trainer password generated: {}", password);
-        user.setIsActive(false);
-        log.info("Creating trainer: {}", user.getUsername());
-        Trainer trainer = new Trainer();
-        TrainingType specialization = trainingTypeRepository.findById(trainerRegistrationRequest.getSpecializationId())
+        TrainingType specialization = trainingTypeService.findById(trainerRegistrationRequest.getSpecializationId())
                 .orElseThrow(() -> new TrainingTypeNotFoundException("Specialization type with id " + trainerRegistrationRequest.getSpecializationId() + " not found"));
-        trainer.setSpecialization(specialization);
-        trainer.setUser(user);
-        trainerRepository.save(trainer);
-        log.info("Successfully created trainer: {}", user.getUsername());
-        UserResponse userResponse = new UserResponse();
-        userResponse.setUsername(trainer.getUser().getUsername());
-        userResponse.setPassword(password);
-        return userResponse;
+        log.debug("Generating trainer password");
+        String password = userService.generateRandomPassword();
+        String encodedPassword = passwordHashingService.encode(password);
+        for (int attempt = 1; ; attempt++) {
+            User user = new User();
+            user.setFirstName(trainerRegistrationRequest.getFirstName());
+            user.setLastName(trainerRegistrationRequest.getLastName());
+            log.debug("Calculating trainer username");
+            user.setUsername(userService.calculateUsername(trainerRegistrationRequest.getFirstName(), trainerRegistrationRequest.getLastName()));
+            log.debug("Trainer username calculated: {}", user.getUsername());
+            user.setPassword(encodedPassword);
+            user.setIsActive(false);
+            log.debug("Creating trainer: {}", user.getUsername());
+            Trainer trainer = new Trainer();
+            trainer.setSpecialization(specialization);
+            trainer.setUser(user);
+            try {
+                trainerRepository.save(trainer);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == UserService.USERNAME_ALLOCATION_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Username {} was taken concurrently, retrying", user.getUsername());
+                continue;
+            }
+            log.info("Successfully created trainer: {}", user.getUsername());
+            UserResponse userResponse = new UserResponse();
+            userResponse.setUsername(trainer.getUser().getUsername());
+            userResponse.setPassword(password);
+            return userResponse;
+        }
+    }
+
+    // Bulk registration: usernames are allocated for the whole chunk at once, passwords are hashed in parallel
+    // and the chunk is written with batched inserts. If a username was taken concurrently the chunk falls back
+    // to one by one registration
+    public List<BulkRegistrationResult> createTrainers(List<TrainerRegistrationRequest> requests) {
+        log.info("Creating {} trainers in bulk", requests.size());
+        Map<Integer, TrainingType> specializations = trainingTypeService.getTrainingTypesById();
+        List<TrainerRegistrationRequest> accepted = requests.stream()
+                .filter(request -> specializations.containsKey(request.getSpecializationId())).toList();
+        List<String> passwords = accepted.stream().map(request -> userService.generateRandomPassword()).toList();
+        List<String> encodedPasswords = passwordHashingService.encodeAll(passwords);
+        List<String> usernames = userService.calculateUsernames(accepted.stream()
+                .map(request -> request.getFirstName() + "." + request.getLastName()).toList());
+        List<Trainer> trainers = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            TrainerRegistrationRequest request = accepted.get(i);
+            User user = new User();
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setUsername(usernames.get(i));
+            user.setPassword(encodedPasswords.get(i));
+            user.setIsActive(false);
+            Trainer trainer = new Trainer();
+            trainer.setSpecialization(specializations.get(request.getSpecializationId()));
+            trainer.setUser(user);
+            trainers.add(trainer);
+        }
+        try {
+            trainerRepository.saveAll(trainers);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk insert of {} trainers hit a taken username, registering them one by one", accepted.size());
+            return requests.stream().map(this::createTrainerForBulk).toList();
+        }
+        log.info("Successfully created {} trainers in bulk", accepted.size());
+        List<BulkRegistrationResult> results = new ArrayList<>(requests.size());
+        int next = 0;
+        for (TrainerRegistrationRequest request : requests) {
+            if (specializations.containsKey(request.getSpecializationId())) {
+                results.add(BulkRegistrationResult.builder().username(usernames.get(next)).password(passwords.get(next)).build());
+                next++;
+            } else {
+                results.add(unknownSpecialization(request));
+            }
+        }
+        return results;
+    }
+
+    private BulkRegistrationResult createTrainerForBulk(TrainerRegistrationRequest request) {
+        try {
+            UserResponse userResponse = createTrainer(request);
+            return BulkRegistrationResult.builder().username(userResponse.getUsername()).password(userResponse.getPassword()).build();
+        } catch (TrainingTypeNotFoundException e) {
+            return unknownSpecialization(request);
+        } catch (DataIntegrityViolationException e) {
+            return BulkRegistrationResult.builder().error("Unable to allocate a unique username").build();
+        } catch (RuntimeException e) {
+            // Only this row failed, the rows registered before it are committed and keep their credentials
+            log.error("Bulk registration of trainer {} {} failed", request.getFirstName(), request.getLastName(), e);
+            return BulkRegistrationResult.builder().error(BULK_ROW_FAILED).build();
+        }
+    }
+
+    private static BulkRegistrationResult unknownSpecialization(TrainerRegistrationRequest request) {
+        return BulkRegistrationResult.builder()
+                .error("Specialization type with id " + request.getSpecializationId() + " not found").build();
     }
 
     @Transactional
     public TrainerUpdateResponse updateTrainer(TrainerUpdateRequest trainerUpdateRequest) {
-        Trainer trainer = trainerRepository.findByUsername(trainerUpdateRequest.getUsername())
+        // The response lists the trainees, so they are loaded with the trainer
+        Trainer trainer = trainerRepository.findProfileByUsername(trainerUpdateRequest.getUsername())
                 .orElseThrow(() -> new TrainerNotFoundException("Trainer " + trainerUpdateRequest.getUsername() + " not found"));
-        log.info("Updating trainer: {}", trainer.getUser().getUsername());
+        log.debug("Updating trainer: {}", trainer.getUser().getUsername());
         trainer.getUser().setFirstName(trainerUpdateRequest.getFirstName());
         trainer.getUser().setLastName(trainerUpdateRequest.getLastName());
         Trainer updatedTrainer = trainerRepository.save(trainer);
+        availableTrainersCache.evictAll();
         log.info("Successfully updated trainer: {}", trainer.getUser().getUsername());
         return convertTrainerToTrainerUpdateResponse(updatedTrainer);
     }
 
+    @Transactional(readOnly = true)
     public GetTrainerProfileResponse selectTrainer(String username) {
-        log.info("Selecting trainer: {}", username);
-        Trainer trainer = trainerRepository.findByUsername(username)
+        log.debug("Selecting trainer: {}", username);
+        Trainer trainer = trainerRepository.findProfileByUsername(username)
                 .orElseThrow(() -> new TrainerNotFoundException("Trainer " + username + " not found"));
         return convertTrainerToGetTrainerProfileResponse(trainer);
     }
 
+    // The ETag is computed from the versions of the loaded entities rather than by a separate query, which
+    // could be answered by a different replica than the one the body came from
+    @Transactional(readOnly = true)
+    public ETaggedResponse<GetTrainerProfileResponse> selectTrainerWithETag(String username) {
+        log.debug("Selecting trainer with its ETag: {}", username);
+        Trainer trainer = trainerRepository.findProfileByUsername(username)
+                .orElseThrow(() -> new TrainerNotFoundException("Trainer " + username + " not found"));
+        long linkedVersionSum = trainer.getTrainees().stream()
+                .mapToLong(linked -> linked.getVersion() + linked.getUser().getVersion()).sum();
+        ProfileVersion version = new ProfileVersion(trainer.getVersion(), trainer.getUser().getVersion(),
+                (long) trainer.getTrainees().size(), linkedVersionSum);
+        return new ETaggedResponse<>(convertTrainerToGetTrainerProfileResponse(trainer), version.eTag());
+    }
+
+    @Transactional(readOnly = true)
+    public String getTrainerProfileETag(String username) {
+        return trainerRepository.findProfileVersionByUsername(username)
+                .orElseThrow(() -> new TrainerNotFoundException("Trainer " + username + " not found"))
+                .eTag();
+    }
+
     @Transactional
     public void changeTrainerActivationStatus(ActivationRequest activationRequest) {
         Trainer trainer = trainerRepository.findByUsername(activationRequest.getUsername())
                 .orElseThrow(() -> new TrainerNotFoundException("Trainer " + activationRequest.getUsername() + " not found"));
-        log.info("Changing activation status of the trainer: {}", trainer.getUser().getUsername());
+        log.debug("Changing activation status of the trainer: {}", trainer.getUser().getUsername());
         trainer.getUser().setIsActive(activationRequest.getIsActive());
         trainerRepository.save(trainer);
+        userDetailsService.evictUser(trainer.getUser().getUsername());
+        availableTrainersCache.evictAll();
         log.info("Activation status changed successfully for the trainer: {}", trainer.getUser().getUsername());
     }
 
-    public List<TrainerTrainingResponse> getTrainerTrainings(String username, LocalDate periodFrom, LocalDate periodTo, String traineeName) {
-        Specification<Training> spec = TrainerTrainingSpecification.trainingsByCriteria(username, periodFrom, periodTo, traineeName);
-        List<Training> trainings = trainingRepository.findAll(spec);
-        return trainings.stream().map(this::convertTrainingToTrainerTrainingResponse).toList();
+    @Transactional(readOnly = true)
+    public TrainingHistoryPage<TrainerTrainingResponse> getTrainerTrainings(String username, LocalDate periodFrom, LocalDate periodTo,
+                                                                            String traineeName, String cursor, Integer limit) {
+        Specification<Training> spec = trainerTrainingsSpecification(username, periodFrom, periodTo, traineeName);
+        return trainingRepository.findTrainerTrainings(spec, TrainingCursor.decode(cursor), TrainingHistoryPage.pageSize(limit));
+    }
+
+    // The result stream is open for the whole call, so rows are handed to the consumer one by one
+    @Transactional(readOnly = true)
+    public void streamTrainerTrainings(String username, LocalDate periodFrom, LocalDate periodTo, String traineeName,
+                                       Consumer<TrainerTrainingResponse> consumer) {
+        Specification<Training> spec = trainerTrainingsSpecification(username, periodFrom, periodTo, traineeName);
+        try (Stream<TrainerTrainingResponse> trainings = trainingRepository.streamTrainerTrainings(spec)) {
+            trainings.forEach(consumer);
+        }
+    }
+
+    // Usernames are resolved to ids once, an unknown name matches no trainings
+    private Specification<Training> trainerTrainingsSpecification(String username, LocalDate periodFrom, LocalDate periodTo,
+                                                                  String traineeName) {
+        Integer trainerId = trainerRepository.findIdByUsername(username).orElse(null);
+        if (trainerId == null) {
+            return noTrainings();
+        }
+        Integer traineeId = null;
+        if (traineeName != null && !traineeName.isEmpty()) {
+            traineeId = traineeRepository.findIdByUsername(traineeName).orElse(null);
+            if (traineeId == null) {
+                return noTrainings();
+            }
+        }
+        return TrainerTrainingSpecification.trainingsByCriteria(trainerId, periodFrom, periodTo, traineeId);
+    }
+
+    private static Specification<Training> noTrainings() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
     }
 
     @Transactional
     public void addTraining(AddTrainingRequest addTrainingRequest) {
-        log.info("Adding new training: {}", addTrainingRequest.getTrainingName());
+        log.debug("Adding new training: {}", addTrainingRequest.getTrainingName());
         Trainee trainee = traineeRepository.findByUsername(addTrainingRequest.getTraineeUsername())
                 .orElseThrow(() -> new TraineeNotFoundException("Trainee " + addTrainingRequest.getTraineeUsername() + " not found"));
         Trainer trainer = trainerRepository.findByUsername(addTrainingRequest.getTrainerUsername())
                 .orElseThrow(() -> new TrainerNotFoundException("Trainer " + addTrainingRequest.getTrainerUsername() + " not found"));
-        if (!trainer.getTrainees().contains(trainee)) {
+        if (!trainerRepository.isTraineeAssigned(trainer.getId(), trainee.getId())) {
             log.warn("The trainee {} have not requested the training by the trainer {}", trainee.getUser().getUsername(), trainer.getUser().getUsername());
             return;
         }
-        List<Training> trainerTrainings = trainingRepository.findAll();
-        for (Training training : trainerTrainings) {
-            if (training.getTrainingDate().equals(addTrainingRequest.getTrainingDate())) {
-                log.warn("There is already a training {} with trainee {} scheduled for the same date {}",
-                        training.getTrainingName(), trainee.getUser().getUsername(), training.getTrainingDate());
-                return;
-            }
-            // ask if local date and time supposed to be used instead of just local date ???
-//            if (training.getTrainingDate().plus(training.getTrainingDuration(), ChronoUnit.MINUTES).isAfter(addTrainingRequest.getTrainingDate())) {
-//                log.warn("The requested trainee training overlapping with already assigned training");
-//                return;
-//            }
+        if (hasSchedulingConflict(trainer, trainee, addTrainingRequest.getTrainingDate(), addTrainingRequest.getTrainingDuration())) {
+            log.warn("The requested training {} overlaps with a training already scheduled for trainer {} or trainee {}",
+                    addTrainingRequest.getTrainingName(), trainer.getUser().getUsername(), trainee.getUser().getUsername());
+            return;
         }
         Training training = new Training();
         training.setTrainee(trainee);
@@ -124,17 +259,17 @@ public class TrainerService {
         training.setTrainingDate(addTrainingRequest.getTrainingDate());
         training.setTrainingDuration(addTrainingRequest.getTrainingDuration());
         trainingRepository.save(training);
-        log.info("Successfully added training: {}", training);
+        log.info("Successfully added training {} on {} for trainee {}", training.getTrainingName(), training.getTrainingDate(),
+                trainee.getUser().getUsername());
     }
 
-    private TrainerTrainingResponse convertTrainingToTrainerTrainingResponse(Training training) {
-        return TrainerTrainingResponse.builder()
-                .trainingName(training.getTrainingName())
-                .trainingDate(training.getTrainingDate())
-                .trainingType(training.getTrainer().getSpecialization().getName())
-                .trainingDuration(training.getTrainingDuration())
-                .traineeUsername(training.getTrainee().getUser().getUsername())
-                .build();
+    // Trainings have no time of day, so each one is treated as starting at the beginning of its date
+    private boolean hasSchedulingConflict(Trainer trainer, Trainee trainee, LocalDate trainingDate, int durationMinutes) {
+        LocalDateTime start = trainingDate.atStartOfDay();
+        LocalDate lastDay = start.plusMinutes(durationMinutes).minusNanos(1).toLocalDate();
+        LocalDate lookbackFrom = start.minusMinutes(Training.MAX_DURATION_MINUTES).toLocalDate();
+        return trainingRepository.existsOverlappingTrainerTraining(trainer.getId(), lookbackFrom, lastDay, start)
+                || trainingRepository.existsOverlappingTraineeTraining(trainee.getId(), lookbackFrom, lastDay, start);
     }
 
     private TrainerUpdateResponse convertTrainerToTrainerUpdateResponse(Trainer trainer) {
@@ -144,7 +279,7 @@ public class TrainerService {
                 .lastName(trainer.getUser().getLastName())
                 .specializationId(trainer.getSpecialization().getId())
                 .isActive(trainer.getUser().getIsActive())
-                .traineesList(trainer.getTrainees())
+                .traineesList(trainer.getTrainees().stream().map(this::convertTraineeToTraineeListResponse).toList())
                 .build();
     }
 
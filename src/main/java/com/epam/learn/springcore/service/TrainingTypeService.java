@@ -4,18 +4,100 @@ import com.epam.learn.springcore.dao.TrainingTypeRepository;
 import com.epam.learn.springcore.entity.TrainingType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Training types are a small reference table that practically never changes, so reads are served from an
+// immutable snapshot that is swapped as a whole on refresh
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class TrainingTypeService {
     private final TrainingTypeRepository trainingTypeRepository;
+    private final Lock loadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
 
     public List<TrainingType> getAllTrainingTypes() {
-        log.info("Fetching all training types");
-        return trainingTypeRepository.findAll();
+        return snapshot().trainingTypes();
+    }
+
+    public Map<Integer, TrainingType> getTrainingTypesById() {
+        return snapshot().byId();
+    }
+
+    public Optional<TrainingType> findById(Integer id) {
+        return Optional.ofNullable(id).map(snapshot().byId()::get);
+    }
+
+    // Case-insensitive like the name comparison the database used to do
+    public Optional<TrainingType> findByName(String name) {
+        return Optional.ofNullable(name).map(value -> snapshot().byName().get(value.toLowerCase()));
+    }
+
+    // Derived from the content, so every node serving the same training types hands out the same ETag
+    public String getETag() {
+        return snapshot().eTag();
+    }
+
+    public Instant getLoadedAt() {
+        return snapshot().loadedAt();
+    }
+
+    // Invalidation hook for anything that changes training types; also runs on startup and on a schedule
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${training-types.snapshot.refresh-interval-ms:300000}",
+            initialDelayString = "${training-types.snapshot.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            snapshot = load();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot, the next refresh will try again
+            log.error("Refreshing training types failed", e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // A lock rather than synchronized: the load blocks on JDBC and would pin a virtual thread
+            loadLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        log.debug("Fetching all training types");
+        List<TrainingType> trainingTypes = List.copyOf(trainingTypeRepository.findAll());
+        String content = trainingTypes.stream().map(type -> type.getId() + "=" + type.getName()).sorted()
+                .collect(Collectors.joining(","));
+        return new Snapshot(trainingTypes,
+                trainingTypes.stream().collect(Collectors.toUnmodifiableMap(TrainingType::getId, Function.identity())),
+                trainingTypes.stream().collect(Collectors.toUnmodifiableMap(type -> type.getName().toLowerCase(), Function.identity())),
+                "\"" + Integer.toHexString(content.hashCode()) + "\"",
+                Instant.now());
+    }
+
+    private record Snapshot(List<TrainingType> trainingTypes, Map<Integer, TrainingType> byId,
+                            Map<String, TrainingType> byName, String eTag, Instant loadedAt) {
     }
 }
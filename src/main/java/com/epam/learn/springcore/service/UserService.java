@@ -1,20 +1,29 @@
 package com.epam.learn.springcore.service;
 
 import com.epam.learn.springcore.dao.UserRepository;
+import com.epam.learn.springcore.dto.UsernameUsage;
 import com.epam.learn.springcore.entity.User;
 import com.epam.learn.springcore.exception.TrainerNotFoundException;
+import com.epam.learn.springcore.specification.UsernameSpecification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class UserService {
+    public static final int USERNAME_ALLOCATION_ATTEMPTS = 3;
+    private static final int USERNAME_LOOKUP_CHUNK_SIZE = 500;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final CustomUserDetailsService userDetailsService;
 
     // Password generation utility
     public String generateRandomPassword() {
@@ -22,24 +31,89 @@ public class UserService {
         return RandomStringUtils.randomAlphanumeric(10);
     }
 
+    // One indexed prefix lookup instead of probing base, base1, base2... one query at a time
     public String calculateUsername(String firstName, String lastName) {
         String baseUsername = firstName + "." + lastName;
-        int count = 1;
-        String finalUsername = baseUsername;
-        while (userRepository.findByUsername(finalUsername).isPresent()) {
-            finalUsername = baseUsername + count;
-            count++;
+        UsernameUsage usage = userRepository.findUsernameUsage(UsernameSpecification.startsWith(baseUsername), baseUsername.length());
+        if (usage.getBaseTaken() == 0) {
+            return baseUsername;
+        }
+        return baseUsername + (usage.getMaxSuffix() == null ? 1 : usage.getMaxSuffix() + 1);
+    }
+
+    // Bulk variant: prefix lookups are batched USERNAME_LOOKUP_CHUNK_SIZE base usernames per query and
+    // duplicates inside the batch get consecutive suffixes
+    public List<String> calculateUsernames(List<String> baseUsernames) {
+        Map<String, UsernameSlots> slotsByBase = new HashMap<>();
+        baseUsernames.forEach(base -> slotsByBase.computeIfAbsent(base.toLowerCase(), key -> new UsernameSlots(base)));
+        List<String> distinctBases = slotsByBase.values().stream().map(slots -> slots.baseUsername).toList();
+        for (int from = 0; from < distinctBases.size(); from += USERNAME_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = distinctBases.subList(from, Math.min(from + USERNAME_LOOKUP_CHUNK_SIZE, distinctBases.size()));
+            for (String username : userRepository.findUsernamesStartingWithAny(chunk)) {
+                markTakenForMatchingBases(username, slotsByBase);
+            }
         }
-        return finalUsername;
+        return baseUsernames.stream().map(base -> slotsByBase.get(base.toLowerCase()).next()).toList();
     }
 
     public void changePassword(String username, String newPassword) {
-        log.info("Changing password for user: {}", username);
+        log.debug("Changing password for user: {}", username);
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new TrainerNotFoundException("User " + username + " not found"));
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictUser(username);
         log.info("Password for user {} changed", username);
     }
 
+    // A taken name such as John.Doe12 may belong to the bases John.Doe12, John.Doe1 and John.Doe
+    private static void markTakenForMatchingBases(String takenUsername, Map<String, UsernameSlots> slotsByBase) {
+        String lowerCase = takenUsername.toLowerCase();
+        int end = lowerCase.length();
+        while (true) {
+            UsernameSlots slots = slotsByBase.get(lowerCase.substring(0, end));
+            if (slots != null) {
+                slots.markTaken(takenUsername);
+            }
+            if (end == 0 || !Character.isDigit(lowerCase.charAt(end - 1))) {
+                return;
+            }
+            end--;
+        }
+    }
+
+    private static class UsernameSlots {
+        private final String baseUsername;
+        private boolean baseTaken;
+        private int maxSuffix;
+
+        UsernameSlots(String baseUsername) {
+            this.baseUsername = baseUsername;
+        }
+
+        void markTaken(String username) {
+            if (username.equalsIgnoreCase(baseUsername)) {
+                baseTaken = true;
+            } else if (username.regionMatches(true, 0, baseUsername, 0, baseUsername.length())) {
+                maxSuffix = Math.max(maxSuffix, parseSuffix(username.substring(baseUsername.length())));
+            }
+        }
+
+        String next() {
+            if (!baseTaken) {
+                baseTaken = true;
+                return baseUsername;
+            }
+            maxSuffix++;
+            return baseUsername + maxSuffix;
+        }
+
+        private static int parseSuffix(String suffix) {
+            if (suffix.isEmpty() || suffix.length() > 9 || !suffix.chars().allMatch(Character::isDigit)) {
+                return 0;
+            }
+            return Integer.parseInt(suffix);
+        }
+    }
+
 }
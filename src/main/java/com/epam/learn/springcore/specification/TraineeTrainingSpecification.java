@@ -1,9 +1,7 @@
 package com.epam.learn.springcore.specification;
 
-import com.epam.learn.springcore.entity.Trainee;
 import com.epam.learn.springcore.entity.Trainer;
 import com.epam.learn.springcore.entity.Training;
-import com.epam.learn.springcore.entity.TrainingType;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
@@ -12,18 +10,16 @@ import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
 
 public class TraineeTrainingSpecification {
-    public static Specification<Training> trainingsByCriteria(String username, LocalDate periodFrom, LocalDate periodTo, String trainerName, String trainingType) {
+    // Usernames are resolved to ids beforehand, so trainee and trainer are matched on the foreign key columns
+    // of training, served by its (trainee_id, training_date) index, without joining the users table
+    public static Specification<Training> trainingsByCriteria(Integer traineeId, LocalDate periodFrom, LocalDate periodTo, Integer trainerId, Integer trainingTypeId) {
         return (root, query, criteriaBuilder) -> {
-            // Join Trainee entity to filter by username
-            Join<Training, Trainee> traineeJoin = root.join("trainee", JoinType.INNER);
-            Join<Training, Trainer> trainerJoin = root.join("trainer", JoinType.INNER);
-
             // Predicate to combine conditions
             Predicate predicate = criteriaBuilder.conjunction();
 
-            // Filter by Trainee username
-            if (username != null && !username.isEmpty()) {
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(traineeJoin.get("user").get("username"), username));
+            // Filter by Trainee
+            if (traineeId != null) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("trainee").get("id"), traineeId));
             }
 
             // Filter by training period (from date)
@@ -36,15 +32,15 @@ public class TraineeTrainingSpecification {
                 predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(root.get("trainingDate"), periodTo));
             }
 
-            // Filter by trainerName
-            if (trainerName != null && !trainerName.isEmpty()) {
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(trainerJoin.get("user").get("username"), trainerName));
+            // Filter by Trainer
+            if (trainerId != null) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("trainer").get("id"), trainerId));
             }
 
-            // Filter by trainingType
-            if (trainingType != null && !trainingType.isEmpty()) {
-                Join<Trainer, TrainingType> trainingTypeJoin = trainerJoin.join("specialization");
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(trainingTypeJoin.get("name"), trainingType));
+            // Filter by trainingType, resolved to its id beforehand so the foreign key is compared without a join
+            if (trainingTypeId != null) {
+                Join<Training, Trainer> trainerJoin = root.join("trainer", JoinType.INNER);
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(trainerJoin.get("specialization").get("id"), trainingTypeId));
             }
 
             return predicate;
@@ -1,28 +1,22 @@
 package com.epam.learn.springcore.specification;
 
-import com.epam.learn.springcore.entity.Trainee;
-import com.epam.learn.springcore.entity.Trainer;
 import com.epam.learn.springcore.entity.Training;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 
 public class TrainerTrainingSpecification {
-    public static Specification<Training> trainingsByCriteria(String username, LocalDate periodFrom, LocalDate periodTo, String traineeName) {
+    // Usernames are resolved to ids beforehand, so trainer and trainee are matched on the foreign key columns
+    // of training, served by its (trainer_id, training_date) index, without joining the users table
+    public static Specification<Training> trainingsByCriteria(Integer trainerId, LocalDate periodFrom, LocalDate periodTo, Integer traineeId) {
         return (root, query, criteriaBuilder) -> {
-            // Join Trainee entity to filter by username
-            Join<Training, Trainer> trainerJoin = root.join("trainer", JoinType.INNER);
-            Join<Training, Trainee> traineeJoin = root.join("trainee", JoinType.INNER);
-
             // Predicate to combine conditions
             Predicate predicate = criteriaBuilder.conjunction();
 
-            // Filter by Trainer username
-            if (username != null && !username.isEmpty()) {
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(trainerJoin.get("user").get("username"), username));
+            // Filter by Trainer
+            if (trainerId != null) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("trainer").get("id"), trainerId));
             }
 
             // Filter by training period (from date)
@@ -35,9 +29,9 @@ public class TrainerTrainingSpecification {
                 predicate = criteriaBuilder.and(predicate, criteriaBuilder.lessThanOrEqualTo(root.get("trainingDate"), periodTo));
             }
 
-            // Filter by traineeName
-            if (traineeName != null && !traineeName.isEmpty()) {
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(traineeJoin.get("user").get("username"), traineeName));
+            // Filter by Trainee
+            if (traineeId != null) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("trainee").get("id"), traineeId));
             }
 
             return predicate;
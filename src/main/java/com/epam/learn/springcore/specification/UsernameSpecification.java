@@ -0,0 +1,34 @@
+package com.epam.learn.springcore.specification;
+
+import com.epam.learn.springcore.entity.User;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public class UsernameSpecification {
+    // Portable LIKE escape character, a backslash would need escaping itself in MySQL string literals
+    public static final char LIKE_ESCAPE = '!';
+
+    public static Specification<User> usernameStartsWithAny(Collection<String> baseUsernames) {
+        return (root, query, criteriaBuilder) -> {
+            // One prefix range per base username, all of them served by the unique index on username
+            Predicate[] predicates = baseUsernames.stream()
+                    .map(baseUsername -> criteriaBuilder.like(root.get("username"), startsWith(baseUsername), LIKE_ESCAPE))
+                    .toArray(Predicate[]::new);
+            return criteriaBuilder.or(predicates);
+        };
+    }
+
+    // Names come from user input, so % and _ in them are matched literally
+    public static String startsWith(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 2);
+        for (char c : prefix.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,65 @@
+-- Schema as the first release's entities generated it with ddl-auto=update. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start with V2, so everything added since
+-- lives in later migrations and constraint names are kept as Hibernate generated them
+
+create table training_type (
+    id integer not null,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id integer not null auto_increment,
+    is_active bit not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table trainee (
+    date_of_birth date,
+    id integer not null auto_increment,
+    user_id integer,
+    address varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table trainer (
+    id integer not null auto_increment,
+    specialization_id integer not null,
+    user_id integer,
+    primary key (id)
+) engine=InnoDB;
+
+create table trainee_trainer (
+    trainee_id integer not null,
+    trainer_id integer not null
+) engine=InnoDB;
+
+create table training (
+    id integer not null auto_increment,
+    trainee_id integer,
+    trainer_id integer,
+    training_date date not null,
+    training_duration integer not null,
+    training_name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table trainee add constraint UK9igmnx5qpydg6979po7fvrefd unique (user_id);
+alter table trainer add constraint UKgeuofcxp00v2rcu9fj9g7olue unique (user_id);
+alter table training_type add constraint UKt7p83184m6su8okylsksrst6o unique (name);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table trainee add constraint FKpykyhhxyw9ooig1jxyrwcgkle foreign key (user_id) references users (id);
+alter table trainee_trainer add constraint FKdylvwu2o2shyw0derk7laallo foreign key (trainee_id) references trainee (id);
+alter table trainee_trainer add constraint FK2ga1l3899l1l9cvggypwy8nx1 foreign key (trainer_id) references trainer (id);
+alter table trainer add constraint FK8kfknuu0rsxcbd8gykyw2ag65 foreign key (specialization_id) references training_type (id);
+alter table trainer add constraint FKcvrnk74l63joim36fu4m2r4f8 foreign key (user_id) references users (id);
+alter table training add constraint FKi2dctw34e0xl50d8tsnrre7te foreign key (trainee_id) references trainee (id);
+alter table training add constraint FK7r3b25ygw5bdjamojskmpk0b9 foreign key (trainer_id) references trainer (id);
+
+-- The first release seeded these from data.sql on every start, baselined databases already have them
+insert into training_type (id, name) values (1, 'fitness'), (2, 'yoga'), (3, 'Zumba'), (4, 'stretching'), (5, 'resistance');
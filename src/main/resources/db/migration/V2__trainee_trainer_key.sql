@@ -0,0 +1,13 @@
+-- The trainee_trainer join table had no key: a trainer could be assigned twice and lookups by trainee
+-- went through the foreign key index only. Duplicate assignments are collapsed before the key is added;
+-- the primary key also serves (trainee_id, trainer_id) probes
+create table trainee_trainer_distinct (
+    trainee_id integer not null,
+    trainer_id integer not null
+) engine=InnoDB;
+insert into trainee_trainer_distinct (trainee_id, trainer_id) select distinct trainee_id, trainer_id from trainee_trainer;
+delete from trainee_trainer;
+insert into trainee_trainer (trainee_id, trainer_id) select trainee_id, trainer_id from trainee_trainer_distinct;
+drop table trainee_trainer_distinct;
+
+alter table trainee_trainer add primary key (trainee_id, trainer_id);
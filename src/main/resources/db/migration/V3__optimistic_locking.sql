@@ -0,0 +1,4 @@
+-- Version columns of User, Trainee and Trainer (optimistic locking and profile ETags); existing rows start at 0
+alter table users add column version bigint default 0 not null;
+alter table trainee add column version bigint default 0 not null;
+alter table trainer add column version bigint default 0 not null;
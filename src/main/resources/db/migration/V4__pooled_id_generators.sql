@@ -0,0 +1,16 @@
+-- User, Trainee and Trainer ids come from pooled generators so inserts can be batched. Each generator starts
+-- past the ids AUTO_INCREMENT handed out so far; the AUTO_INCREMENT attribute stays but is no longer used
+create table users_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into users_seq (next_val) select coalesce(max(id), 0) + 1 from users;
+
+create table trainee_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into trainee_seq (next_val) select coalesce(max(id), 0) + 1 from trainee;
+
+create table trainer_seq (
+    next_val bigint
+) engine=InnoDB;
+insert into trainer_seq (next_val) select coalesce(max(id), 0) + 1 from trainer;
@@ -0,0 +1,8 @@
+-- Revoked JWTs shared between nodes (security.jwt.revocation.store=database), swept by expiry
+create table revoked_token (
+    expires_at datetime(6) not null,
+    token_hash varchar(64) not null,
+    primary key (token_hash)
+) engine=InnoDB;
+
+create index idx_revoked_token_expires_at on revoked_token (expires_at);
@@ -0,0 +1,3 @@
+-- Training history is read per trainer or trainee ordered by date
+create index idx_training_trainer_date on training (trainer_id, training_date);
+create index idx_training_trainee_date on training (trainee_id, training_date);
@@ -0,0 +1,70 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.TrainerResponse;
+import com.epam.learn.springcore.service.AvailableTrainersCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AvailableTrainersCacheTest {
+    private static final List<TrainerResponse> CACHED = List.of(new TrainerResponse("Carl.Fit", "Carl", "Fit", 1));
+    private static final List<TrainerResponse> RELOADED = List.of();
+
+    private final AvailableTrainersCache cache = new AvailableTrainersCache(new SimpleMeterRegistry(), 30000, 100);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEvictTrainee_OutsideTransaction_EvictsImmediately() {
+        // Arrange
+        cache.get("Anna.Lee", null, null, null, () -> CACHED);
+
+        // Act
+        cache.evictTrainee("Anna.Lee");
+
+        // Assert
+        assertEquals(RELOADED, cache.get("Anna.Lee", null, null, null, () -> RELOADED));
+    }
+
+    @Test
+    void testEvictAll_InTransaction_EvictsAfterCommit() {
+        // Arrange
+        cache.get("Anna.Lee", null, null, null, () -> CACHED);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.evictAll();
+        List<TrainerResponse> beforeCommit = cache.get("Anna.Lee", null, null, null, () -> RELOADED);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(CACHED, beforeCommit);
+        assertEquals(RELOADED, cache.get("Anna.Lee", null, null, null, () -> RELOADED));
+    }
+
+    @Test
+    void testEvictTrainee_InRolledBackTransaction_KeepsEntries() {
+        // Arrange
+        cache.get("Anna.Lee", null, null, null, () -> CACHED);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.evictTrainee("Anna.Lee");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertEquals(CACHED, cache.get("Anna.Lee", null, null, null, () -> RELOADED));
+    }
+}
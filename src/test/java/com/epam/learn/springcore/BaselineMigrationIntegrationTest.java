@@ -0,0 +1,75 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.TraineeRegistrationRequest;
+import com.epam.learn.springcore.service.TraineeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A database as the first release left it (its generated schema, a duplicated trainer assignment) is
+// baselined at V1 and migrated when the context starts; the context only starts if Hibernate validates
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=" + BaselineMigrationIntegrationTest.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.show-sql=false"})
+public class BaselineMigrationIntegrationTest {
+    static final String URL = "jdbc:h2:mem:baseline-migration;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    static {
+        DriverManagerDataSource baseline = new DriverManagerDataSource(URL, "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/baseline-schema.sql")).execute(baseline);
+        JdbcTemplate jdbc = new JdbcTemplate(baseline);
+        jdbc.update("INSERT INTO training_type (id, name) VALUES (1, 'fitness'), (2, 'yoga'), (3, 'Zumba'), (4, 'stretching'), (5, 'resistance')");
+        jdbc.update("INSERT INTO users (first_name, last_name, username, password, is_active) VALUES " +
+                "('Anna', 'Lee', 'Anna.Lee', 'x', true), ('Carl', 'Fit', 'Carl.Fit', 'x', true)");
+        jdbc.update("INSERT INTO trainee (date_of_birth, address, user_id) VALUES ('1990-01-01', 'Main St', 1)");
+        jdbc.update("INSERT INTO trainer (specialization_id, user_id) VALUES (1, 2)");
+        jdbc.update("INSERT INTO trainee_trainer (trainee_id, trainer_id) VALUES (1, 1), (1, 1)");
+        jdbc.update("INSERT INTO training (trainee_id, trainer_id, training_name, training_date, training_duration) VALUES " +
+                "(1, 1, 'Morning', '2024-01-10', 60)");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TraineeService traineeService;
+
+    @Test
+    void testBaselinedAtV1_LaterMigrationsApplied() {
+        // Act
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" = true AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+
+        // Assert
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), versions);
+        assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                "SELECT \"type\" FROM \"flyway_schema_history\" WHERE \"version\" = '1'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trainee_trainer", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = 1", Long.class));
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM training_type", Integer.class));
+    }
+
+    @Test
+    void testIdGeneratorsContinuePastExistingRows() {
+        // Act
+        String username = traineeService.createTrainee(
+                new TraineeRegistrationRequest("Bob", "Ray", LocalDate.of(1991, 2, 2), "Side St")).getUsername();
+
+        // Assert
+        assertTrue(jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Integer.class, username) > 2);
+        assertTrue(jdbcTemplate.queryForObject("SELECT t.id FROM trainee t JOIN users u ON u.id = t.user_id WHERE u.username = ?",
+                Integer.class, username) > 1);
+    }
+}
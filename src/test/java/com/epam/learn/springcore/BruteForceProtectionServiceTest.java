@@ -0,0 +1,85 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.service.BruteForceProtectionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BruteForceProtectionServiceTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BruteForceProtectionService bruteForceProtectionService;
+
+    @BeforeEach
+    void setUp() {
+        bruteForceProtectionService = new BruteForceProtectionService(meterRegistry, 3, 5, 60000, 60000, 1000);
+    }
+
+    @Test
+    void testLoginFailed_LocksUsernameAfterMaxAttempts() {
+        // Act
+        bruteForceProtectionService.loginFailed("john", "10.0.0.1");
+        bruteForceProtectionService.loginFailed("john", "10.0.0.2");
+        assertFalse(bruteForceProtectionService.isBlocked("john", "10.0.0.3"));
+        bruteForceProtectionService.loginFailed("john", "10.0.0.3");
+
+        // Assert
+        assertTrue(bruteForceProtectionService.isBlocked("john", "10.0.0.4"));
+        assertFalse(bruteForceProtectionService.isBlocked("jane", "10.0.0.4"));
+        bruteForceProtectionService.sweep();
+        assertEquals(1.0, meterRegistry.get("login.throttle.locked").tag("key", "username").gauge().value());
+    }
+
+    @Test
+    void testLoginFailed_LocksIpAcrossUsernames() {
+        // Act
+        IntStream.range(0, 5).forEach(i -> bruteForceProtectionService.loginFailed("user" + i, "10.0.0.1"));
+
+        // Assert
+        assertTrue(bruteForceProtectionService.isBlocked("someone", "10.0.0.1"));
+        assertFalse(bruteForceProtectionService.isBlocked("someone", "10.0.0.2"));
+    }
+
+    @Test
+    void testLoginSucceeded_ResetsUsernameButNotIp() {
+        // Arrange
+        IntStream.range(0, 4).forEach(i -> bruteForceProtectionService.loginFailed("john", "10.0.0.1"));
+
+        // Act
+        bruteForceProtectionService.loginSucceeded("john", "10.0.0.1");
+
+        // Assert
+        assertFalse(bruteForceProtectionService.isBlocked("john", "10.0.0.2"));
+        bruteForceProtectionService.loginFailed("jane", "10.0.0.1");
+        assertTrue(bruteForceProtectionService.isBlocked("jane", "10.0.0.1"));
+    }
+
+    @Test
+    void testLoginFailed_ConcurrentFailuresAreAllCounted() {
+        // Arrange
+        bruteForceProtectionService = new BruteForceProtectionService(meterRegistry, 200, 1000, 60000, 60000, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 199)
+                    .mapToObj(i -> CompletableFuture.runAsync(
+                            () -> bruteForceProtectionService.loginFailed("john", "10.0.0." + i), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertFalse(bruteForceProtectionService.isBlocked("john", null));
+        bruteForceProtectionService.loginFailed("john", null);
+        assertTrue(bruteForceProtectionService.isBlocked("john", null));
+    }
+}
@@ -0,0 +1,140 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.BulkRegistrationResult;
+import com.epam.learn.springcore.dto.TrainerRegistrationRequest;
+import com.epam.learn.springcore.facade.BulkImportFacade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkImportFacadeTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final BulkImportFacade bulkImportFacade = new BulkImportFacade(objectMapper, validatorFactory.getValidator());
+    private final List<List<TrainerRegistrationRequest>> chunks = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testImportRows_JsonArray_SplitsIntoChunksAndNumbersRows() throws Exception {
+        // Arrange
+        String body = IntStream.rangeClosed(1, 1001)
+                .mapToObj(i -> "{\"firstName\":\"John" + i + "\",\"lastName\":\"Doe\",\"specializationId\":1}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        // Act
+        List<BulkRegistrationResult> results = importRows(body, this::register);
+
+        // Assert
+        assertEquals(List.of(500, 500, 1), chunks.stream().map(List::size).toList());
+        assertEquals(1001, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).getRow());
+            assertEquals("John" + (i + 1) + ".Doe", results.get(i).getUsername());
+        }
+    }
+
+    @Test
+    void testImportRows_InvalidRow_ReportedWithItsNumberAndSkipped() throws Exception {
+        // Arrange
+        String body = """
+                {"firstName":"John","lastName":"Doe","specializationId":1}
+                {"firstName":"","lastName":"Doe"}
+                {"firstName":"Jane","lastName":"Roe","specializationId":2}
+                """;
+
+        // Act
+        List<BulkRegistrationResult> results = importRows(body, this::register);
+
+        // Assert
+        assertEquals(1, chunks.size());
+        assertEquals(List.of("John", "Jane"), chunks.get(0).stream().map(TrainerRegistrationRequest::getFirstName).toList());
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).getRow());
+        assertEquals("First name is mandatory, Specialization id is mandatory", results.get(0).getError());
+        assertEquals(1, results.get(1).getRow());
+        assertEquals("John.Doe", results.get(1).getUsername());
+        assertEquals(3, results.get(2).getRow());
+        assertEquals("Jane.Roe", results.get(2).getUsername());
+    }
+
+    @Test
+    void testImportRows_UnreadableRow_StopsAndImportsRowsBefore() throws Exception {
+        // Arrange
+        String body = """
+                {"firstName":"John","lastName":"Doe","specializationId":1}
+                {"firstName":"Jane","lastName":"Roe","specializationId":
+                {"firstName":"Carl","lastName":"Fit","specializationId":1}
+                """;
+
+        // Act
+        List<BulkRegistrationResult> results = importRows(body, this::register);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).getRow());
+        assertTrue(results.get(0).getError().startsWith("Unreadable row"));
+        assertEquals(1, results.get(1).getRow());
+        assertEquals("John.Doe", results.get(1).getUsername());
+        assertEquals(1, chunks.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testImportRows_FailingChunk_GenericErrorForEveryRow() throws Exception {
+        // Arrange
+        String body = """
+                {"firstName":"John","lastName":"Doe","specializationId":1}
+                {"firstName":"Jane","lastName":"Roe","specializationId":2}
+                """;
+
+        // Act
+        List<BulkRegistrationResult> results = importRows(body, chunk -> {
+            throw new IllegalStateException("Duplicate entry 'John.Doe' for key 'users.UK_username'");
+        });
+
+        // Assert
+        assertEquals(2, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).getRow());
+            assertNull(results.get(i).getUsername());
+            assertEquals("Registration failed, the row was not imported", results.get(i).getError());
+        }
+    }
+
+    private List<BulkRegistrationResult> register(List<TrainerRegistrationRequest> chunk) {
+        chunks.add(List.copyOf(chunk));
+        return chunk.stream().map(request -> BulkRegistrationResult.builder()
+                .username(request.getFirstName() + "." + request.getLastName()).password("password").build()).toList();
+    }
+
+    private List<BulkRegistrationResult> importRows(String body,
+                                                    Function<List<TrainerRegistrationRequest>, List<BulkRegistrationResult>> chunkImporter)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/trainers/bulk");
+        request.setContent(body.getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bulkImportFacade.importRows(request, response, TrainerRegistrationRequest.class, chunkImporter);
+        assertEquals("application/x-ndjson", response.getContentType());
+        List<BulkRegistrationResult> results = new ArrayList<>();
+        for (String line : Arrays.stream(response.getContentAsString().split("\n")).filter(line -> !line.isBlank()).toList()) {
+            results.add(objectMapper.readValue(line, BulkRegistrationResult.class));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,71 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.filter.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, new ObjectMapper(), 1, 0);
+
+    @Test
+    void testDoFilter_ReleasesPermitAfterSynchronousRequest() throws Exception {
+        // Act
+        MockHttpServletResponse first = filter(new MockHttpServletRequest("GET", "/api/trainees"));
+        MockHttpServletResponse second = filter(new MockHttpServletRequest("GET", "/api/trainees"));
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(0.0, inFlight());
+    }
+
+    @Test
+    void testDoFilter_AsyncRequestKeepsPermitUntilComplete() throws Exception {
+        // Arrange: the NDJSON variant of the trainings route streams its response asynchronously
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/api/trainees/Anna.Lee/trainings");
+        streaming.addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE);
+        streaming.setAsyncSupported(true);
+        MockHttpServletResponse streamingResponse = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(streaming, streamingResponse, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                request.startAsync();
+            }
+        });
+        MockHttpServletResponse whileStreaming = filter(new MockHttpServletRequest("GET", "/api/trainees"));
+        AsyncContext asyncContext = streaming.getAsyncContext();
+        asyncContext.complete();
+        MockHttpServletResponse afterStreaming = filter(new MockHttpServletRequest("GET", "/api/trainees"));
+
+        // Assert
+        assertEquals(503, whileStreaming.getStatus());
+        assertEquals("1", whileStreaming.getHeader("Retry-After"));
+        assertEquals(200, afterStreaming.getStatus());
+        assertEquals(0.0, inFlight());
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("web.concurrency.in.flight").gauge().value();
+    }
+}
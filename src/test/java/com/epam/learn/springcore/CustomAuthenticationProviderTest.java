@@ -0,0 +1,100 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.config.CustomAuthenticationProvider;
+import com.epam.learn.springcore.exception.PasswordHashingBusyException;
+import com.epam.learn.springcore.service.BruteForceProtectionService;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.PasswordHashingService;
+import com.epam.learn.springcore.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CustomAuthenticationProviderTest {
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private BruteForceProtectionService bruteForceProtectionService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private CustomAuthenticationProvider authenticationProvider;
+
+    private final UsernamePasswordAuthenticationToken login = new UsernamePasswordAuthenticationToken("John.Doe", "password");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(customUserDetailsService.loadUserByUsername("John.Doe"))
+                .thenReturn(new User("John.Doe", "old-hash", List.of()));
+        when(passwordHashingService.matches("password", "old-hash")).thenReturn(true);
+    }
+
+    @Test
+    void testAuthenticate_WeakHash_ReHashed() {
+        // Arrange
+        when(passwordHashingService.upgradeEncoding("old-hash")).thenReturn(true);
+
+        // Act
+        Authentication authentication = authenticationProvider.authenticate(login);
+
+        // Assert
+        assertTrue(authentication.isAuthenticated());
+        verify(userService, times(1)).changePassword("John.Doe", "password");
+    }
+
+    @Test
+    void testAuthenticate_ReHashBusy_LoginStillSucceeds() {
+        // Arrange
+        when(passwordHashingService.upgradeEncoding("old-hash")).thenReturn(true);
+        doThrow(new PasswordHashingBusyException("Password hashing is busy"))
+                .when(userService).changePassword("John.Doe", "password");
+
+        // Act
+        Authentication authentication = authenticationProvider.authenticate(login);
+
+        // Assert
+        assertTrue(authentication.isAuthenticated());
+        verify(bruteForceProtectionService, times(1)).loginSucceeded("John.Doe", null);
+    }
+
+    @Test
+    void testAuthenticate_ReHashConflict_LoginStillSucceeds() {
+        // Arrange
+        when(passwordHashingService.upgradeEncoding("old-hash")).thenReturn(true);
+        doThrow(new ObjectOptimisticLockingFailureException("User", 1))
+                .when(userService).changePassword("John.Doe", "password");
+
+        // Act & Assert
+        assertTrue(authenticationProvider.authenticate(login).isAuthenticated());
+    }
+
+    @Test
+    void testAuthenticate_WrongPassword_Rejected() {
+        // Arrange
+        UsernamePasswordAuthenticationToken wrong = new UsernamePasswordAuthenticationToken("John.Doe", "wrong");
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(wrong));
+        verify(bruteForceProtectionService, times(1)).loginFailed("John.Doe", null);
+        verify(userService, never()).changePassword(anyString(), anyString());
+    }
+}
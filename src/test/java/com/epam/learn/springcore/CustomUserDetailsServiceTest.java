@@ -0,0 +1,63 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dao.UserRepository;
+import com.epam.learn.springcore.entity.User;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CustomUserDetailsServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userDetailsService = new CustomUserDetailsService(userRepository, new SimpleMeterRegistry());
+
+        User user = new User();
+        user.setUsername("John.Doe");
+        user.setPassword("encoded");
+        when(userRepository.findByUsername("John.Doe")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void testLoadUserByUsername_ServedFromCache() {
+        UserDetails first = userDetailsService.loadUserByUsername("John.Doe");
+        UserDetails second = userDetailsService.loadUserByUsername("John.Doe");
+
+        assertEquals("encoded", first.getPassword());
+        assertEquals("encoded", second.getPassword());
+        verify(userRepository, times(1)).findByUsername("John.Doe");
+    }
+
+    @Test
+    void testEvictUser_ReloadsFromDatabase() {
+        userDetailsService.loadUserByUsername("John.Doe");
+        userDetailsService.evictUser("John.Doe");
+        userDetailsService.loadUserByUsername("John.Doe");
+
+        verify(userRepository, times(2)).findByUsername("John.Doe");
+    }
+
+    @Test
+    void testLoadUserByUsername_UnknownUserNotCached() {
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown"));
+        verify(userRepository, times(2)).findByUsername("unknown");
+    }
+}
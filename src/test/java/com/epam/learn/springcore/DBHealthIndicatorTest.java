@@ -0,0 +1,99 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.monitoring.DBHealthIndicator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DBHealthIndicatorTest {
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @InjectMocks
+    private DBHealthIndicator dbHealthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(dataSource.getMaximumPoolSize()).thenReturn(10);
+        when(dataSource.getPoolName()).thenReturn("primary");
+    }
+
+    @Test
+    void testHealth_ReportsPoolUsageWithoutBorrowingAConnection() throws SQLException {
+        // Arrange
+        when(pool.getActiveConnections()).thenReturn(4);
+        when(pool.getIdleConnections()).thenReturn(6);
+        when(pool.getTotalConnections()).thenReturn(10);
+
+        // Act
+        Health health = dbHealthIndicator.health();
+
+        // Assert
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("Connected!", health.getDetails().get("status"));
+        assertEquals(0.4, health.getDetails().get("saturation"));
+        assertEquals("primary", health.getDetails().get("pool"));
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void testHealth_ThreadsWaiting_Saturated() {
+        // Arrange
+        when(pool.getActiveConnections()).thenReturn(10);
+        when(pool.getTotalConnections()).thenReturn(10);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(7);
+
+        // Act
+        Health health = dbHealthIndicator.health();
+
+        // Assert
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("Saturated!", health.getDetails().get("status"));
+        assertEquals(1.0, health.getDetails().get("saturation"));
+        assertEquals(7, health.getDetails().get("threadsAwaitingConnection"));
+    }
+
+    @Test
+    void testHealth_NoConnectionsWhileThreadsWait_Down() {
+        // Arrange
+        when(pool.getTotalConnections()).thenReturn(0);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(2);
+
+        // Act
+        Health health = dbHealthIndicator.health();
+
+        // Assert
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("No connections!", health.getDetails().get("status"));
+    }
+
+    @Test
+    void testHealth_NoConnectionsAndNoThreadsWaiting_Down() {
+        // Arrange
+        when(pool.getTotalConnections()).thenReturn(0);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(0);
+
+        // Act
+        Health health = dbHealthIndicator.health();
+
+        // Assert
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("No connections!", health.getDetails().get("status"));
+    }
+}
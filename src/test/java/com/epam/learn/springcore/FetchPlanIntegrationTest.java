@@ -0,0 +1,224 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.*;
+import com.epam.learn.springcore.exception.TraineeNotFoundException;
+import com.epam.learn.springcore.monitoring.SqlExecutionTracker;
+import com.epam.learn.springcore.service.AvailableTrainersCache;
+import com.epam.learn.springcore.service.TraineeService;
+import com.epam.learn.springcore.service.TrainerService;
+import com.epam.learn.springcore.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the services against the Flyway schema on H2 in MySQL mode and counts the statements each call issues
+// through the same tracker that feeds the per-request SQL metrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetch-plans;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.show-sql=false",
+        "monitoring.sql.enabled=true"})
+public class FetchPlanIntegrationTest {
+    @Autowired
+    private TraineeService traineeService;
+
+    @Autowired
+    private TrainerService trainerService;
+
+    @Autowired
+    private SqlExecutionTracker sqlExecutionTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvailableTrainersCache availableTrainersCache;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        availableTrainersCache.evictAll();
+        jdbcTemplate.update("DELETE FROM training");
+        jdbcTemplate.update("DELETE FROM trainee_trainer");
+        jdbcTemplate.update("DELETE FROM trainee");
+        jdbcTemplate.update("DELETE FROM trainer");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) VALUES " +
+                "(1, 'Anna', 'Lee', 'Anna.Lee', 'x', true, 0), (2, 'Bob', 'Ray', 'Bob.Ray', 'x', true, 0), " +
+                "(3, 'Carl', 'Fit', 'Carl.Fit', 'x', true, 0), (4, 'Dina', 'Yog', 'Dina.Yog', 'x', true, 0)");
+        jdbcTemplate.update("INSERT INTO trainee (id, user_id, date_of_birth, address, version) VALUES " +
+                "(1, 1, '1990-01-01', 'Main St', 0), (2, 2, '1991-02-02', 'Side St', 0)");
+        jdbcTemplate.update("INSERT INTO trainer (id, user_id, specialization_id, version) VALUES (1, 3, 1, 0), (2, 4, 2, 0)");
+        jdbcTemplate.update("INSERT INTO trainee_trainer (trainee_id, trainer_id) VALUES (1, 1), (2, 1)");
+        jdbcTemplate.update("INSERT INTO training (trainee_id, trainer_id, training_name, training_date, training_duration) VALUES " +
+                "(1, 1, 'Morning', '2024-01-10', 60), (1, 1, 'Evening', '2024-01-11', 60), (2, 1, 'Morning', '2024-01-12', 60)");
+    }
+
+    @Test
+    void testProfiles_OneStatementEach() {
+        // Act & Assert
+        GetTraineeProfileResponse trainee = assertStatements(1, () -> traineeService.selectTrainee("Anna.Lee"));
+        GetTrainerProfileResponse trainer = assertStatements(1, () -> trainerService.selectTrainer("Carl.Fit"));
+        assertStatements(1, () -> traineeService.getTraineeProfileETag("Anna.Lee"));
+
+        assertEquals("Carl.Fit", trainee.getTrainersList().get(0).getUsername());
+        assertEquals(2, trainer.getTraineesList().size());
+    }
+
+    @Test
+    void testUpdates_LoadGraphOnceThenWrite() {
+        // Arrange
+        TraineeUpdateRequest traineeUpdate = new TraineeUpdateRequest();
+        traineeUpdate.setUsername("Anna.Lee");
+        traineeUpdate.setFirstName("Ann");
+        traineeUpdate.setLastName("Lee");
+        traineeUpdate.setAddress("New St");
+
+        // Act & Assert: profile select, users update, trainee update
+        TraineeUpdateResponse response = assertStatements(3, () -> traineeService.updateTrainee(traineeUpdate));
+        assertEquals("Carl.Fit", response.getTrainersList().get(0).getUsername());
+        // summary select and users update, the trainee row itself is unchanged
+        assertStatements(2, () -> {
+            traineeService.changeTraineeActivationStatus(new ActivationRequest("Bob.Ray", false));
+            return null;
+        });
+    }
+
+    @Test
+    void testTrainingHistory_ResolvesIdsThenRunsOneQuery() {
+        // Act & Assert
+        TrainingHistoryPage<TraineeTrainingResponse> traineeTrainings = assertStatements(3, () ->
+                traineeService.getTraineeTrainings("Anna.Lee", null, null, "Carl.Fit", null, null, null));
+        TrainingHistoryPage<TrainerTrainingResponse> trainerTrainings = assertStatements(2, () ->
+                trainerService.getTrainerTrainings("Carl.Fit", null, null, null, null, null));
+
+        assertEquals(2, traineeTrainings.getTrainings().size());
+        assertEquals(3, trainerTrainings.getTrainings().size());
+    }
+
+    @Test
+    void testAddTraining_NoAssociationsLoaded() {
+        // Arrange
+        AddTrainingRequest request = new AddTrainingRequest("Bob.Ray", "Carl.Fit", "Stretch", LocalDate.of(2024, 2, 1), 45);
+
+        // Act & Assert: trainee, trainer, assignment check, two overlap checks, insert
+        assertStatements(6, () -> {
+            trainerService.addTraining(request);
+            return null;
+        });
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM training", Integer.class));
+    }
+
+    @Test
+    void testUpdateTraineeTrainers_InsertsOnlyNewJoinRows() {
+        // Arrange: 50 more trainers, Carl.Fit is already assigned to Anna.Lee
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) " +
+                "SELECT 100 + X, 'Extra', 'Trainer', CONCAT('Extra.Trainer', X), 'x', true, 0 FROM SYSTEM_RANGE(1, 50)");
+        jdbcTemplate.update("INSERT INTO trainer (id, user_id, specialization_id, version) " +
+                "SELECT 100 + X, 100 + X, 1, 0 FROM SYSTEM_RANGE(1, 50)");
+        UpdateTraineeTrainersRequest request = new UpdateTraineeTrainersRequest();
+        request.setTraineeUsername("Anna.Lee");
+        List<String> trainerUsernames = new ArrayList<>(List.of("Carl.Fit"));
+        IntStream.rangeClosed(1, 50).forEach(i -> trainerUsernames.add("Extra.Trainer" + i));
+        trainerUsernames.add("Extra.Trainer1");
+        request.setTrainerUsernames(trainerUsernames);
+
+        String extraETag = trainerService.getTrainerProfileETag("Extra.Trainer1");
+
+        // Act & Assert: profile select, trainers IN select, one batch of join row inserts, trainee version update,
+        // one version update for the newly assigned trainers
+        List<TrainerResponse> trainers = assertStatements(5, () -> traineeService.updateTraineeTrainers(request));
+        assertEquals(51, trainers.size());
+        assertEquals(51, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trainee_trainer WHERE trainee_id = 1", Integer.class));
+        assertNotEquals(extraETag, trainerService.getTrainerProfileETag("Extra.Trainer1"));
+    }
+
+    @Test
+    void testDeleteTrainee_ChangesTrainerETag() {
+        // Arrange
+        String eTag = trainerService.getTrainerProfileETag("Carl.Fit");
+
+        // Act
+        traineeService.deleteTrainee("Bob.Ray");
+
+        // Assert
+        assertNotEquals(eTag, trainerService.getTrainerProfileETag("Carl.Fit"));
+        assertEquals(1, trainerService.selectTrainer("Carl.Fit").getTraineesList().size());
+    }
+
+    @Test
+    void testFindActiveTrainersNotAssignedToTrainee_CachedUntilRosterChanges() {
+        // Act & Assert: trainee id lookup and the anti-join projection, then served from the cache
+        List<TrainerResponse> trainers = assertStatements(2, () -> traineeService.findActiveTrainersNotAssignedToTrainee("Anna.Lee", null, null, null));
+        assertStatements(0, () -> traineeService.findActiveTrainersNotAssignedToTrainee("Anna.Lee", null, null, null));
+        assertEquals(1, trainers.size());
+        assertEquals("Dina.Yog", trainers.get(0).getUsername());
+        assertEquals(2, trainers.get(0).getSpecializationId());
+
+        ActivationRequest deactivation = new ActivationRequest();
+        deactivation.setUsername("Dina.Yog");
+        deactivation.setIsActive(false);
+        trainerService.changeTrainerActivationStatus(deactivation);
+        List<TrainerResponse> afterDeactivation = assertStatements(2, () -> traineeService.findActiveTrainersNotAssignedToTrainee("Anna.Lee", null, null, null));
+        assertTrue(afterDeactivation.isEmpty());
+    }
+
+    @Test
+    void testFindActiveTrainersNotAssignedToTrainee_FilterAndPage() {
+        // Arrange
+        jdbcTemplate.update("DELETE FROM trainee_trainer WHERE trainee_id = 2");
+
+        // Act & Assert
+        assertEquals(List.of("Carl.Fit", "Dina.Yog"), traineeService.findActiveTrainersNotAssignedToTrainee("Bob.Ray", null, null, null)
+                .stream().map(TrainerResponse::getUsername).toList());
+        assertEquals(List.of("Dina.Yog"), traineeService.findActiveTrainersNotAssignedToTrainee("Bob.Ray", null, 1, 1)
+                .stream().map(TrainerResponse::getUsername).toList());
+        assertEquals(List.of("Carl.Fit"), traineeService.findActiveTrainersNotAssignedToTrainee("Bob.Ray", "fitness", null, null)
+                .stream().map(TrainerResponse::getUsername).toList());
+        assertTrue(traineeService.findActiveTrainersNotAssignedToTrainee("Bob.Ray", "Boxing", null, null).isEmpty());
+        assertThrows(TraineeNotFoundException.class, () -> traineeService.findActiveTrainersNotAssignedToTrainee("Nobody", null, null, null));
+    }
+
+    @Test
+    void testCalculateUsername_OneStatementWithSuffixFromDatabase() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) VALUES " +
+                "(10, 'Anna', 'Lee', 'Anna.Lee7', 'x', true, 0), (11, 'Anna', 'Lee', 'Anna.Lee12', 'x', true, 0), " +
+                "(12, 'Anna', 'Leex', 'Anna.Leex', 'x', true, 0), (13, 'Anna', 'Lee', 'Anna.Lee3a', 'x', true, 0), " +
+                "(14, 'Ann_', 'Lee', 'Ann_.Lee', 'x', true, 0)");
+
+        // Act & Assert
+        assertEquals("Anna.Lee13", assertStatements(1, () -> userService.calculateUsername("Anna", "Lee")));
+        assertEquals("Bob.Ray1", assertStatements(1, () -> userService.calculateUsername("Bob", "Ray")));
+        assertEquals("Carl.Fitness", assertStatements(1, () -> userService.calculateUsername("Carl", "Fitness")));
+        assertEquals("Ann%.Lee", userService.calculateUsername("Ann%", "Lee"));
+        assertEquals("Ann_.Lee1", userService.calculateUsername("Ann_", "Lee"));
+        assertEquals(List.of("Anna.Lee13", "Ann%.Lee"), assertStatements(1,
+                () -> userService.calculateUsernames(List.of("Anna.Lee", "Ann%.Lee"))));
+    }
+
+    private <T> T assertStatements(int expected, Supplier<T> serviceCall) {
+        sqlExecutionTracker.begin();
+        try {
+            T result = serviceCall.get();
+            assertEquals(expected, sqlExecutionTracker.end().getStatements());
+            return result;
+        } finally {
+            sqlExecutionTracker.end();
+        }
+    }
+}
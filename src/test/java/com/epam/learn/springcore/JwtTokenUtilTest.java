@@ -0,0 +1,49 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtTokenUtilTest {
+    private MeterRegistry meterRegistry;
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenUtil = new JwtTokenUtil(meterRegistry);
+        userDetails = new User("John.Doe", "password", new ArrayList<>());
+    }
+
+    @Test
+    void testValidateToken_VerifiesSignatureOnce() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        assertEquals("John.Doe", jwtTokenUtil.getUsernameFromToken(token));
+        assertTrue(jwtTokenUtil.validateToken(token, userDetails));
+        assertEquals("John.Doe", jwtTokenUtil.getUsernameFromToken(token));
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(3, meterRegistry.get("cache.gets").tag("cache", "jwt.claims").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testGetUsernameFromToken_TamperedTokenRejected() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtTokenUtil.getUsernameFromToken(tampered));
+    }
+}
@@ -0,0 +1,61 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.exception.StreamingBusyException;
+import com.epam.learn.springcore.facade.NdjsonStreamFacade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonStreamFacadeTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NdjsonStreamFacade ndjsonStreamFacade = new NdjsonStreamFacade(new ObjectMapper(), meterRegistry, 1);
+
+    @Test
+    void testStream_WritesOneLinePerRow() throws IOException {
+        // Arrange
+        StreamingResponseBody body = ndjsonStreamFacade.<List<Integer>>stream(consumer -> {
+            consumer.accept(List.of(1));
+            consumer.accept(List.of(2, 3));
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        body.writeTo(out);
+
+        // Assert
+        assertEquals("[1]\n[2,3]\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStream_LimitReached_RejectedUntilOpenStreamFinishes() throws IOException {
+        // Arrange
+        StreamingResponseBody open = ndjsonStreamFacade.<String>stream(consumer -> consumer.accept("row"));
+
+        // Act & Assert
+        assertEquals(1.0, meterRegistry.get("web.streaming.active").gauge().value());
+        assertThrows(StreamingBusyException.class, () -> ndjsonStreamFacade.<String>stream(consumer -> { }));
+        open.writeTo(new ByteArrayOutputStream());
+        assertEquals(0.0, meterRegistry.get("web.streaming.active").gauge().value());
+        assertNotNull(ndjsonStreamFacade.<String>stream(consumer -> { }));
+    }
+
+    @Test
+    void testStream_ProducerFails_PermitReleased() {
+        // Arrange
+        StreamingResponseBody failing = ndjsonStreamFacade.<String>stream(consumer -> {
+            throw new IllegalStateException("query failed");
+        });
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> failing.writeTo(new ByteArrayOutputStream()));
+        assertNotNull(ndjsonStreamFacade.<String>stream(consumer -> { }));
+    }
+}
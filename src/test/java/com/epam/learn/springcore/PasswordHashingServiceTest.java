@@ -0,0 +1,109 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.exception.PasswordHashingBusyException;
+import com.epam.learn.springcore.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHashingServiceTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatches_RecordLatency() {
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 1, 10, 5000);
+
+        String hash = passwordHashingService.encode("password");
+
+        assertTrue(passwordHashingService.matches("password", hash));
+        assertFalse(passwordHashingService.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("password.hashing.latency").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.latency").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void testEncode_RejectsWhenPoolIsSaturated() throws Exception {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1, 5000);
+
+        // One task occupies the only worker, the second one fills the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("second"));
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> passwordHashingService.encode("third"));
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testEncodeAll_LeavesQueueForInteractiveCalls() throws Exception {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            String rawPassword = invocation.getArgument(0);
+            if (rawPassword.startsWith("bulk")) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return "hash-" + rawPassword;
+        });
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1, 5000);
+
+        // The import holds the only worker and waits for a permit instead of filling the queue
+        CompletableFuture<List<String>> bulk = CompletableFuture.supplyAsync(
+                () -> passwordHashingService.encodeAll(List.of("bulk1", "bulk2", "bulk3")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("executor.queued").gauge().value());
+        CompletableFuture<String> interactive = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("login"));
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        release.countDown();
+        assertEquals("hash-login", interactive.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("hash-bulk1", "hash-bulk2", "hash-bulk3"), bulk.get(5, TimeUnit.SECONDS));
+        assertEquals(3, meterRegistry.get("password.hashing.latency").tag("operation", "encode-bulk").timer().count());
+    }
+
+    @Test
+    void testUpgradeEncoding_WhenStrengthIncreased() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password");
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 1, 10, 5000);
+
+        assertTrue(passwordHashingService.upgradeEncoding(weakHash));
+        assertFalse(passwordHashingService.upgradeEncoding(passwordHashingService.encode("password")));
+    }
+}
@@ -0,0 +1,161 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.ETaggedResponse;
+import com.epam.learn.springcore.dto.GetTraineeProfileResponse;
+import com.epam.learn.springcore.dto.TraineeUpdateRequest;
+import com.epam.learn.springcore.dto.TrainerResponse;
+import com.epam.learn.springcore.monitoring.ReplicaLagMonitor;
+import com.epam.learn.springcore.service.AvailableTrainersCache;
+import com.epam.learn.springcore.service.TraineeService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Primary and replica are two separate in-memory databases; the replica is never written by the application,
+// so which one answered a read shows in the data. Replication lag is simulated with a table on the replica
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.show-sql=false",
+        "datasource.replica.urls=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "datasource.replica.lag-query=SELECT lag_seconds AS Seconds_Behind_Source FROM replica_lag",
+        "datasource.replica.lag-check-interval-ms=3600000"})
+public class ReadReplicaRoutingIntegrationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TraineeService traineeService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private AvailableTrainersCache availableTrainersCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_seconds INT)");
+        replicaJdbcTemplate.update("DELETE FROM replica_lag");
+        replicaJdbcTemplate.update("INSERT INTO replica_lag (lag_seconds) VALUES (0)");
+        seed(jdbcTemplate, "Primary St");
+        seed(replicaJdbcTemplate, "Replica St");
+        replicaLagMonitor.checkReplicas();
+        availableTrainersCache.evictAll();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica_WritesUsePrimary() {
+        // Act
+        String readAddress = traineeService.selectTrainee("Anna.Lee").getAddress();
+        TraineeUpdateRequest update = new TraineeUpdateRequest();
+        update.setUsername("Anna.Lee");
+        update.setFirstName("Anna");
+        update.setLastName("Lee");
+        update.setAddress("New St");
+        traineeService.updateTrainee(update);
+
+        // Assert
+        assertEquals("Replica St", readAddress);
+        assertEquals("New St", jdbcTemplate.queryForObject("SELECT address FROM trainee WHERE id = 1", String.class));
+        assertEquals("Replica St", replicaJdbcTemplate.queryForObject("SELECT address FROM trainee WHERE id = 1", String.class));
+        assertEquals(1.0, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-1").gauge().value());
+        assertNotNull(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "replica-1").timer());
+        assertNotNull(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "primary").timer());
+    }
+
+    @Test
+    void testReplicaPool_UsesPrimaryDriverSettings() {
+        // Act
+        HikariDataSource replica = (HikariDataSource) replicaLagMonitor.getReplica("replica-1");
+
+        // Assert
+        assertEquals("true", replica.getDataSourceProperties().getProperty("useCursorFetch"));
+        assertEquals("true", replica.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+        assertEquals(1000, replica.getConnectionTimeout());
+    }
+
+    @Test
+    void testLaggingReplica_ReadsFallBackToPrimary() {
+        // Arrange
+        replicaJdbcTemplate.update("UPDATE replica_lag SET lag_seconds = 60");
+        replicaLagMonitor.checkReplicas();
+
+        // Act & Assert
+        assertEquals("Primary St", traineeService.selectTrainee("Anna.Lee").getAddress());
+        assertEquals(0.0, meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-1").gauge().value());
+        assertEquals(60.0, meterRegistry.get("datasource.replica.lag").tag("replica", "replica-1").gauge().value());
+    }
+
+    @Test
+    void testReplicaNotReplicating_ReadsFallBackToPrimary() {
+        // Arrange
+        replicaJdbcTemplate.update("DELETE FROM replica_lag");
+        replicaLagMonitor.checkReplicas();
+
+        // Act & Assert
+        assertTrue(replicaLagMonitor.getHealthyReplicas().isEmpty());
+        assertEquals("Primary St", traineeService.selectTrainee("Anna.Lee").getAddress());
+    }
+
+    @Test
+    void testProfileWithETag_ETagMatchesTheReplicaTheBodyCameFrom() {
+        // Arrange
+        jdbcTemplate.update("UPDATE trainee SET version = 7 WHERE id = 1");
+
+        // Act
+        ETaggedResponse<GetTraineeProfileResponse> profile = traineeService.selectTraineeWithETag("Anna.Lee");
+
+        // Assert
+        assertEquals("Replica St", profile.body().getAddress());
+        assertEquals("\"0-0-0-0\"", profile.eTag());
+    }
+
+    @Test
+    void testAvailableTrainers_CacheFilledFromPrimary() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) " +
+                "VALUES (2, 'Carl', 'Fit', 'Carl.Fit', 'x', true, 0)");
+        jdbcTemplate.update("INSERT INTO trainer (id, user_id, specialization_id, version) VALUES (1, 2, 1, 0)");
+
+        // Act
+        List<TrainerResponse> trainers = traineeService.findActiveTrainersNotAssignedToTrainee("Anna.Lee", null, null, null);
+
+        // Assert
+        assertEquals(1, trainers.size());
+        assertEquals("Carl.Fit", trainers.get(0).getUsername());
+    }
+
+    private static void seed(JdbcTemplate jdbc, String address) {
+        jdbc.update("DELETE FROM training");
+        jdbc.update("DELETE FROM trainee_trainer");
+        jdbc.update("DELETE FROM trainee");
+        jdbc.update("DELETE FROM trainer");
+        jdbc.update("DELETE FROM users");
+        jdbc.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) VALUES " +
+                "(1, 'Anna', 'Lee', 'Anna.Lee', 'x', true, 0)");
+        jdbc.update("INSERT INTO trainee (id, user_id, date_of_birth, address, version) VALUES (1, 1, ?, ?, 0)",
+                LocalDate.of(1990, 1, 1), address);
+    }
+}
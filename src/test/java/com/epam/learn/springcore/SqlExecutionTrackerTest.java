@@ -0,0 +1,63 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.monitoring.SqlExecutionTracker;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class SqlExecutionTrackerTest {
+    private final SqlExecutionTracker sqlExecutionTracker = new SqlExecutionTracker(500);
+
+    @Test
+    void testEnd_ReturnsStatementsAndRowsOfCurrentRequest() throws Exception {
+        // Arrange
+        sqlExecutionTracker.begin();
+
+        // Act
+        execute("select * from trainee where id = ?");
+        execute("select * from trainer where id = ?");
+        next(true);
+        next(true);
+        next(false);
+        SqlExecutionTracker.RequestStats stats = sqlExecutionTracker.end();
+
+        // Assert
+        assertEquals(2, stats.getStatements());
+        assertEquals(2, stats.getRows());
+    }
+
+    @Test
+    void testEnd_IgnoresStatementsOutsideRequest() throws Exception {
+        // Act
+        execute("select * from training_type");
+        next(true);
+        sqlExecutionTracker.begin();
+        SqlExecutionTracker.RequestStats stats = sqlExecutionTracker.end();
+
+        // Assert
+        assertEquals(0, stats.getStatements());
+        assertEquals(0, stats.getRows());
+    }
+
+    private void execute(String sql) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        sqlExecutionTracker.beforeQuery(executionInfo, queries);
+        sqlExecutionTracker.afterQuery(executionInfo, queries);
+    }
+
+    private void next(boolean hasRow) throws Exception {
+        MethodExecutionContext executionContext = new MethodExecutionContext();
+        executionContext.setTarget(mock(ResultSet.class));
+        executionContext.setMethod(ResultSet.class.getMethod("next"));
+        executionContext.setResult(hasRow);
+        sqlExecutionTracker.afterMethod(executionContext);
+    }
+}
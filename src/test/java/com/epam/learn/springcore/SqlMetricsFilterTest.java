@@ -0,0 +1,50 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.filter.SqlMetricsFilter;
+import com.epam.learn.springcore.monitoring.SqlExecutionTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SqlMetricsFilterTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlMetricsFilter sqlMetricsFilter = new SqlMetricsFilter(new SqlExecutionTracker(500), meterRegistry, 25);
+
+    @Test
+    void testDoFilter_RecordsPerMethodAndRoute() throws Exception {
+        // Act
+        filter("GET", "/api/trainees/Anna.Lee", "/api/trainees/{username}");
+        filter("GET", "/api/trainees/Bob.Ray", "/api/trainees/{username}");
+        filter("PUT", "/api/trainees/Anna.Lee", "/api/trainees/{username}");
+        filter("GET", "/nowhere", null);
+
+        // Assert
+        assertEquals(2, meterRegistry.get("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/api/trainees/{username}").summary().count());
+        assertEquals(1, meterRegistry.get("http.server.requests.sql.time")
+                .tags("method", "PUT", "uri", "/api/trainees/{username}").timer().count());
+        assertEquals(1, meterRegistry.get("http.server.requests.sql.rows")
+                .tags("method", "GET", "uri", "UNKNOWN").summary().count());
+        assertEquals(3, meterRegistry.get("http.server.requests.sql.statements").summaries().size());
+    }
+
+    private void filter(String method, String uri, String pattern) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        sqlMetricsFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) {
+                if (pattern != null) {
+                    servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                }
+            }
+        });
+    }
+}
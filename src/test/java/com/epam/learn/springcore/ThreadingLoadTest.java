@@ -0,0 +1,144 @@
+package com.epam.learn.springcore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares the same build started twice, once with the default platform thread pool and once with the
+// vthreads profile, both against the same database:
+// mvn test -Dtest=ThreadingLoadTest -Dloadtest.platform-url=http://localhost:8080 \
+//     -Dloadtest.virtual-url=http://localhost:8081 -Dloadtest.username=... -Dloadtest.password=...
+@EnabledIfSystemProperty(named = "loadtest.platform-url", matches = ".+")
+public class ThreadingLoadTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final String username = System.getProperty("loadtest.username");
+    private static final String password = System.getProperty("loadtest.password");
+    private static final int concurrency = Integer.getInteger("loadtest.concurrency", 400);
+    private static final int requests = Integer.getInteger("loadtest.requests", 10000);
+    private static final int warmupRequests = Integer.getInteger("loadtest.warmup-requests", 1000);
+
+    private static String platformUrl;
+    private static String virtualUrl;
+
+    @BeforeAll
+    static void setUp() {
+        platformUrl = System.getProperty("loadtest.platform-url");
+        virtualUrl = System.getProperty("loadtest.virtual-url", platformUrl);
+    }
+
+    @Test
+    void testTraineeProfile() throws Exception {
+        compare("/api/trainees/" + username);
+    }
+
+    @Test
+    void testTraineeTrainingHistory() throws Exception {
+        compare("/api/trainees/" + username + "/trainings");
+    }
+
+    private void compare(String path) throws Exception {
+        Result platform = run(platformUrl, path);
+        Result virtual = run(virtualUrl, path);
+        System.out.printf("%s (%d requests, %d concurrent)%n", path, requests, concurrency);
+        System.out.printf("  platform threads: %s%n", platform);
+        System.out.printf("  virtual threads:  %s%n", virtual);
+        assertEquals(0, platform.failed(), "platform run had failed requests");
+        assertEquals(0, virtual.failed(), "virtual run had failed requests");
+    }
+
+    private Result run(String baseUrl, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + login(baseUrl))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        load(request, warmupRequests);
+        return load(request, requests);
+    }
+
+    // A virtual thread per request with a semaphore keeps exactly `concurrency` requests in flight. Throughput
+    // and latencies count only the requests that were served, a fast 503 from the concurrency limit would
+    // otherwise make the rejecting run look better
+    private Result load(HttpRequest request, int count) throws Exception {
+        long[] latencies = new long[count];
+        Arrays.fill(latencies, -1);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 200) {
+                            latencies[index] = System.nanoTime() - sent;
+                        } else if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] accepted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        return new Result(accepted.length * 1_000_000_000.0 / elapsed,
+                percentileMillis(accepted, 0.5), percentileMillis(accepted, 0.99),
+                accepted.length, rejected.get(), failed.get());
+    }
+
+    private static double percentileMillis(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return Double.NaN;
+        }
+        return sortedLatencies[Math.max((int) Math.ceil(sortedLatencies.length * percentile) - 1, 0)] / 1_000_000.0;
+    }
+
+    private String login(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("username", username, "password", password))))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "login failed: " + response.body());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int accepted, int rejected, int failed) {
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms over %d served, %d rejected (503), %d failed",
+                    throughput, p50Millis, p99Millis, accepted, rejected, failed);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dao.InMemoryTokenRevocationStore;
+import com.epam.learn.springcore.dao.TokenRevocationStore;
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import com.epam.learn.springcore.service.TokenBlacklistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenBlacklistServiceTest {
+    @Mock
+    private JwtTokenUtil jwtTokenUtil;
+
+    private TokenRevocationStore revocationStore;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        revocationStore = spy(new InMemoryTokenRevocationStore());
+    }
+
+    @Test
+    void testAddTokenToBlacklist_TokenRevokedUntilExpiration() {
+        TokenBlacklistService tokenBlacklistService = new TokenBlacklistService(revocationStore, jwtTokenUtil, false);
+        when(jwtTokenUtil.getExpirationDateFromToken("token")).thenReturn(Date.from(Instant.now().plusSeconds(60)));
+
+        tokenBlacklistService.addTokenToBlacklist("token");
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted("token"));
+        assertFalse(tokenBlacklistService.isTokenBlacklisted("another-token"));
+    }
+
+    @Test
+    void testEvictExpiredTokens_DropsExpiredEntries() {
+        revocationStore.revoke(JwtTokenUtil.hashToken("expired"), Instant.now().minusSeconds(1));
+        revocationStore.revoke(JwtTokenUtil.hashToken("active"), Instant.now().plusSeconds(60));
+        TokenBlacklistService tokenBlacklistService = new TokenBlacklistService(revocationStore, jwtTokenUtil, false);
+
+        tokenBlacklistService.evictExpiredTokens();
+
+        assertEquals(1, revocationStore.findActiveTokenHashes().size());
+        assertFalse(tokenBlacklistService.isTokenBlacklisted("expired"));
+        assertTrue(tokenBlacklistService.isTokenBlacklisted("active"));
+    }
+
+    @Test
+    void testIsTokenBlacklisted_BloomFilterSkipsStoreForUnknownTokens() {
+        TokenBlacklistService tokenBlacklistService = new TokenBlacklistService(revocationStore, jwtTokenUtil, true);
+        when(jwtTokenUtil.getExpirationDateFromToken("token")).thenReturn(Date.from(Instant.now().plusSeconds(60)));
+        tokenBlacklistService.addTokenToBlacklist("token");
+
+        assertTrue(tokenBlacklistService.isTokenBlacklisted("token"));
+        for (int i = 0; i < 100; i++) {
+            tokenBlacklistService.isTokenBlacklisted("token-" + i);
+        }
+
+        verify(revocationStore, atMost(3)).isRevoked(anyString());
+    }
+}
@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -22,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 public class TraineeControllerTest {
@@ -37,6 +39,9 @@ public class TraineeControllerTest {
     @Mock
     private AuthenticationFacade authenticationFacade;
 
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private TraineeController traineeController;
 
@@ -55,12 +60,31 @@ public class TraineeControllerTest {
 
         when(authenticationFacade.extractAuthToken(headers)).thenReturn("jwt_token");
         when(jwtTokenUtil.getUsernameFromToken("jwt_token")).thenReturn("username");
-        when(traineeService.selectTrainee("username")).thenReturn(profileResponse);
+        when(traineeService.getTraineeProfileETag("username")).thenReturn("\"1-1-0-0\"");
+        // The profile changed between the ETag check and the load, the returned ETag describes the loaded body
+        when(traineeService.selectTraineeWithETag("username")).thenReturn(new ETaggedResponse<>(profileResponse, "\"2-1-0-0\""));
 
-        ResponseEntity<GetTraineeProfileResponse> response = traineeController.getTraineeProfile("username", headers);
+        ResponseEntity<GetTraineeProfileResponse> response = traineeController.getTraineeProfile("username", headers, webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(profileResponse, response.getBody());
+        assertEquals("\"2-1-0-0\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetTraineeProfile_NotModified() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "Bearer jwt_token");
+
+        when(authenticationFacade.extractAuthToken(headers)).thenReturn("jwt_token");
+        when(jwtTokenUtil.getUsernameFromToken("jwt_token")).thenReturn("username");
+        when(traineeService.getTraineeProfileETag("username")).thenReturn("\"1-1-0-0\"");
+        when(webRequest.checkNotModified("\"1-1-0-0\"")).thenReturn(true);
+
+        ResponseEntity<GetTraineeProfileResponse> response = traineeController.getTraineeProfile("username", headers, webRequest);
+
+        assertNull(response);
+        verify(traineeService, never()).selectTraineeWithETag("username");
     }
 
     @Test
@@ -71,7 +95,7 @@ public class TraineeControllerTest {
         when(authenticationFacade.extractAuthToken(headers)).thenReturn("jwt_token");
         when(jwtTokenUtil.getUsernameFromToken("jwt_token")).thenReturn("another_user");
 
-        ResponseEntity<GetTraineeProfileResponse> response = traineeController.getTraineeProfile("username", headers);
+        ResponseEntity<GetTraineeProfileResponse> response = traineeController.getTraineeProfile("username", headers, webRequest);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -115,9 +139,9 @@ public class TraineeControllerTest {
 
         when(authenticationFacade.extractAuthToken(headers)).thenReturn("jwt_token");
         when(jwtTokenUtil.getUsernameFromToken("jwt_token")).thenReturn("username");
-        when(traineeService.findActiveTrainersNotAssignedToTrainee("username")).thenReturn(trainers);
+        when(traineeService.findActiveTrainersNotAssignedToTrainee("username", "Yoga", 0, 10)).thenReturn(trainers);
 
-        ResponseEntity<List<TrainerResponse>> response = traineeController.getActiveTrainersNotAssignedToTrainee("username", headers);
+        ResponseEntity<List<TrainerResponse>> response = traineeController.getActiveTrainersNotAssignedToTrainee("username", "Yoga", 0, 10, headers);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(trainers, response.getBody());
@@ -131,11 +155,14 @@ public class TraineeControllerTest {
 
         when(authenticationFacade.extractAuthToken(headers)).thenReturn("jwt_token");
         when(jwtTokenUtil.getUsernameFromToken("jwt_token")).thenReturn("username");
-        when(traineeService.getTraineeTrainings("username", null, null, null, null)).thenReturn(trainings);
+        when(traineeService.getTraineeTrainings("username", null, null, null, null, null, null))
+                .thenReturn(new TrainingHistoryPage<>(trainings, "next"));
 
-        ResponseEntity<List<TraineeTrainingResponse>> response = traineeController.getTraineeTrainings("username", null, null, null, null, headers);
+        ResponseEntity<List<TraineeTrainingResponse>> response = traineeController.getTraineeTrainings("username", null, null, null, null,
+                null, null, headers);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(trainings, response.getBody());
+        assertEquals("next", response.getHeaders().getFirst(TraineeController.NEXT_CURSOR_HEADER));
     }
 }
@@ -4,22 +4,33 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.epam.learn.springcore.dao.TraineeRepository;
+import com.epam.learn.springcore.dao.TrainerRepository;
 import com.epam.learn.springcore.dao.TrainingRepository;
 import com.epam.learn.springcore.dto.*;
+import com.epam.learn.springcore.exception.PasswordHashingBusyException;
+import com.epam.learn.springcore.exception.TrainerNotFoundException;
 import com.epam.learn.springcore.entity.*;
+import com.epam.learn.springcore.service.AvailableTrainersCache;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.PasswordHashingService;
 import com.epam.learn.springcore.service.TraineeService;
+import com.epam.learn.springcore.service.TrainingTypeService;
 import com.epam.learn.springcore.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Optional;
 import java.util.List;
 import java.util.Collections;
@@ -31,6 +42,9 @@ public class TraineeServiceTest {
     @Mock
     private TraineeRepository traineeRepository;
 
+    @Mock
+    private TrainerRepository trainerRepository;
+
     @Mock
     private UserService userService;
 
@@ -38,7 +52,16 @@ public class TraineeServiceTest {
     private TrainingRepository trainingRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private TrainingTypeService trainingTypeService;
+
+    @Spy
+    private AvailableTrainersCache availableTrainersCache = new AvailableTrainersCache(new SimpleMeterRegistry(), 30_000, 100);
 
 
     private Trainee trainee;
@@ -89,6 +112,66 @@ public class TraineeServiceTest {
         verify(traineeRepository, times(1)).save(any(Trainee.class));
     }
 
+    @Test
+    void testCreateTrainee_RetriesWhenUsernameTakenConcurrently() {
+        TraineeRegistrationRequest request = new TraineeRegistrationRequest("Test", "User", null, null);
+
+        when(userService.calculateUsername("Test", "User")).thenReturn("Test.User", "Test.User1");
+        when(userService.generateRandomPassword()).thenReturn("password");
+        when(traineeRepository.save(any(Trainee.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'Test.User'"))
+                .thenReturn(trainee);
+
+        UserResponse response = traineeService.createTrainee(request);
+
+        assertEquals("Test.User1", response.getUsername());
+        verify(traineeRepository, times(2)).save(any(Trainee.class));
+        verify(passwordHashingService, times(1)).encode("password");
+    }
+
+    @Test
+    void testCreateTrainees_SavesWholeChunkAtOnce() {
+        List<TraineeRegistrationRequest> requests = List.of(
+                new TraineeRegistrationRequest("John", "Doe", null, null),
+                new TraineeRegistrationRequest("John", "Doe", null, null));
+
+        when(userService.generateRandomPassword()).thenReturn("password1", "password2");
+        when(passwordHashingService.encodeAll(List.of("password1", "password2"))).thenReturn(List.of("hash1", "hash2"));
+        when(userService.calculateUsernames(List.of("John.Doe", "John.Doe"))).thenReturn(List.of("John.Doe", "John.Doe1"));
+
+        List<BulkRegistrationResult> results = traineeService.createTrainees(requests);
+
+        assertEquals(2, results.size());
+        assertEquals("John.Doe1", results.get(1).getUsername());
+        assertEquals("password2", results.get(1).getPassword());
+        verify(traineeRepository, times(1)).saveAll(anyList());
+        verify(traineeRepository, never()).save(any(Trainee.class));
+    }
+
+    @Test
+    void testCreateTrainees_FallbackRowFails_OtherRowsKeepCredentials() {
+        List<TraineeRegistrationRequest> requests = List.of(
+                new TraineeRegistrationRequest("John", "Doe", null, null),
+                new TraineeRegistrationRequest("Jane", "Roe", null, null));
+
+        when(userService.generateRandomPassword()).thenReturn("password1", "password2", "password3", "password4");
+        when(passwordHashingService.encodeAll(List.of("password1", "password2"))).thenReturn(List.of("hash1", "hash2"));
+        when(passwordHashingService.encode("password3")).thenReturn("hash3");
+        when(passwordHashingService.encode("password4")).thenThrow(new PasswordHashingBusyException("Too many concurrent password operations"));
+        when(userService.calculateUsernames(List.of("John.Doe", "Jane.Roe"))).thenReturn(List.of("John.Doe", "Jane.Roe"));
+        when(userService.calculateUsername("John", "Doe")).thenReturn("John.Doe1");
+        when(traineeRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Duplicate entry 'John.Doe'"));
+
+        List<BulkRegistrationResult> results = traineeService.createTrainees(requests);
+
+        assertEquals(2, results.size());
+        assertEquals("John.Doe1", results.get(0).getUsername());
+        assertEquals("password3", results.get(0).getPassword());
+        assertNull(results.get(1).getUsername());
+        assertEquals("Registration failed, the row was not imported", results.get(1).getError());
+        verify(traineeRepository, times(1)).save(any(Trainee.class));
+    }
+
     @Test
     void testUpdateTrainee() {
         TraineeUpdateRequest request = new TraineeUpdateRequest();
@@ -97,8 +180,9 @@ public class TraineeServiceTest {
         request.setLastName("UpdatedLastName");
         request.setDateOfBirth(LocalDate.of(1999, 12, 31));
         request.setAddress("Updated Address");
+        trainee.setTrainers(new HashSet<>());
 
-        when(traineeRepository.findByUsername("testuser")).thenReturn(Optional.of(trainee));
+        when(traineeRepository.findProfileByUsername("testuser")).thenReturn(Optional.of(trainee));
         when(traineeRepository.save(any(Trainee.class))).thenReturn(trainee);
 
         TraineeUpdateResponse response = traineeService.updateTrainee(request);
@@ -121,15 +205,15 @@ public class TraineeServiceTest {
 
     @Test
     void testSelectTrainee() {
-        trainee.setTrainers(new ArrayList<>());
-        when(traineeRepository.findByUsername("testuser")).thenReturn(Optional.of(trainee));
+        trainee.setTrainers(new HashSet<>());
+        when(traineeRepository.findProfileByUsername("testuser")).thenReturn(Optional.of(trainee));
 
         GetTraineeProfileResponse response = traineeService.selectTrainee("testuser");
 
         assertNotNull(response);
         assertEquals("Test", response.getFirstName());
         assertEquals("User", response.getLastName());
-        verify(traineeRepository, times(1)).findByUsername("testuser");
+        verify(traineeRepository, times(1)).findProfileByUsername("testuser");
     }
 
     @Test
@@ -144,18 +228,78 @@ public class TraineeServiceTest {
 
         assertTrue(trainee.getUser().getIsActive());
         verify(traineeRepository, times(1)).save(trainee);
+        verify(userDetailsService, times(1)).evictUser("testuser");
     }
 
     @Test
     void testFindActiveTrainersNotAssignedToTrainee() {
-        when(traineeRepository.findActiveTrainersNotAssignedToTrainee("testuser"))
-                .thenReturn(Collections.singletonList(trainer));
+        List<TrainerResponse> available = Collections.singletonList(new TrainerResponse("John.Doe", "John", "Doe", 1));
+        when(traineeRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1));
+        when(traineeRepository.findActiveTrainersNotAssignedToTrainee(1, null, PageRequest.of(0, 20))).thenReturn(available);
 
-        List<TrainerResponse> trainers = traineeService.findActiveTrainersNotAssignedToTrainee("testuser");
+        List<TrainerResponse> trainers = traineeService.findActiveTrainersNotAssignedToTrainee("testuser", null, 0, null);
+        List<TrainerResponse> cached = traineeService.findActiveTrainersNotAssignedToTrainee("testuser", null, 0, null);
 
-        assertNotNull(trainers);
-        assertEquals(1, trainers.size());
-        verify(traineeRepository, times(1)).findActiveTrainersNotAssignedToTrainee("testuser");
+        assertEquals(available, trainers);
+        assertEquals(available, cached);
+        verify(traineeRepository, times(1)).findActiveTrainersNotAssignedToTrainee(1, null, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void testFindActiveTrainersNotAssignedToTrainee_UnknownSpecialization() {
+        when(trainingTypeService.findByName("Boxing")).thenReturn(Optional.empty());
+
+        List<TrainerResponse> trainers = traineeService.findActiveTrainersNotAssignedToTrainee("testuser", "Boxing", null, null);
+
+        assertTrue(trainers.isEmpty());
+        verify(traineeRepository, never()).findActiveTrainersNotAssignedToTrainee(any(), any(), any());
+    }
+
+    @Test
+    void testUpdateTraineeTrainers_ResolvesTrainersInOneQuery() {
+        Trainer assigned = activeTrainer("Assigned.Trainer");
+        assigned.setId(1);
+        Trainer added = activeTrainer("Added.Trainer");
+        added.setId(2);
+        trainee.setTrainers(new HashSet<>(Set.of(assigned)));
+        UpdateTraineeTrainersRequest request = new UpdateTraineeTrainersRequest();
+        request.setTraineeUsername("testuser");
+        request.setTrainerUsernames(List.of("Assigned.Trainer", "Added.Trainer", "added.trainer"));
+        when(traineeRepository.findProfileByUsername("testuser")).thenReturn(Optional.of(trainee));
+        when(trainerRepository.findAllByUsernameIn(anyCollection())).thenReturn(List.of(assigned, added));
+
+        List<TrainerResponse> trainers = traineeService.updateTraineeTrainers(request);
+
+        assertEquals(2, trainers.size());
+        assertEquals(Set.of(assigned, added), trainee.getTrainers());
+        verify(trainerRepository, times(1)).findAllByUsernameIn(anyCollection());
+        verify(trainerRepository, never()).findByUsername(anyString());
+        verify(trainerRepository, times(1)).incrementVersions(List.of(2));
+        verify(availableTrainersCache, times(1)).evictTrainee("testuser");
+    }
+
+    @Test
+    void testUpdateTraineeTrainers_UnknownTrainerThrows() {
+        trainee.setTrainers(new HashSet<>());
+        UpdateTraineeTrainersRequest request = new UpdateTraineeTrainersRequest();
+        request.setTraineeUsername("testuser");
+        request.setTrainerUsernames(List.of("Missing.Trainer"));
+        when(traineeRepository.findProfileByUsername("testuser")).thenReturn(Optional.of(trainee));
+        when(trainerRepository.findAllByUsernameIn(anyCollection())).thenReturn(List.of());
+
+        assertThrows(TrainerNotFoundException.class, () -> traineeService.updateTraineeTrainers(request));
+        assertTrue(trainee.getTrainers().isEmpty());
+        verify(trainerRepository, never()).incrementVersions(anyCollection());
+    }
+
+    private static Trainer activeTrainer(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setIsActive(true);
+        Trainer trainer = new Trainer();
+        trainer.setUser(user);
+        trainer.setSpecialization(new TrainingType(1, "fitness"));
+        return trainer;
     }
 
     @Test
@@ -163,17 +307,47 @@ public class TraineeServiceTest {
         LocalDate from = LocalDate.of(2023, 1, 1);
         LocalDate to = LocalDate.of(2023, 12, 31);
 
-        Training training = new Training();
-        training.setTrainingName("Test Training");
-        training.setTrainingDate(LocalDate.now());
-        training.setTrainer(trainer);
+        TraineeTrainingResponse training = new TraineeTrainingResponse("Test Training", LocalDate.now(), "Yoga", 60, "trainer");
 
-        when(trainingRepository.findAll(any(Specification.class))).thenReturn(Collections.singletonList(training));
+        TrainingCursor cursor = new TrainingCursor(LocalDate.of(2023, 5, 1), 7);
+        when(traineeRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1));
+        when(trainingRepository.findTraineeTrainings(any(Specification.class), eq(cursor), eq(TrainingHistoryPage.MAX_PAGE_SIZE)))
+                .thenReturn(new TrainingHistoryPage<>(Collections.singletonList(training), null));
 
-        List<TraineeTrainingResponse> trainings = traineeService.getTraineeTrainings("testuser", from, to, null, null);
+        TrainingHistoryPage<TraineeTrainingResponse> trainings = traineeService.getTraineeTrainings("testuser", from, to, null, null,
+                cursor.encode(), 10_000);
 
         assertNotNull(trainings);
-        assertEquals(1, trainings.size());
-        verify(trainingRepository, times(1)).findAll(any(Specification.class));
+        assertEquals(1, trainings.getTrainings().size());
+        assertNull(trainings.getNextCursor());
+        verify(trainingRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void testGetTraineeTrainings_ResolvesTrainingTypeFromSnapshot() {
+        when(traineeRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1));
+        when(trainingTypeService.findByName("yoga")).thenReturn(Optional.of(new TrainingType(3, "Yoga")));
+        when(trainingRepository.findTraineeTrainings(any(Specification.class), isNull(), eq(TrainingHistoryPage.DEFAULT_PAGE_SIZE)))
+                .thenReturn(new TrainingHistoryPage<>(List.of(), null));
+
+        traineeService.getTraineeTrainings("testuser", null, null, null, "yoga", null, null);
+
+        verify(trainingTypeService, times(1)).findByName("yoga");
+        verify(trainingRepository, times(1)).findTraineeTrainings(any(Specification.class), isNull(), eq(TrainingHistoryPage.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void testGetTraineeTrainings_UnknownTraineeSkipsRemainingLookups() {
+        when(traineeRepository.findIdByUsername("unknown")).thenReturn(Optional.empty());
+        when(trainingRepository.findTraineeTrainings(any(Specification.class), isNull(), eq(TrainingHistoryPage.DEFAULT_PAGE_SIZE)))
+                .thenReturn(new TrainingHistoryPage<>(List.of(), null));
+
+        TrainingHistoryPage<TraineeTrainingResponse> trainings = traineeService.getTraineeTrainings("unknown", null, null,
+                "trainer", "yoga", null, null);
+
+        assertTrue(trainings.getTrainings().isEmpty());
+        verify(traineeRepository, times(1)).findIdByUsername("unknown");
+        verify(trainerRepository, never()).findIdByUsername(anyString());
+        verify(trainingTypeService, never()).findByName(anyString());
     }
 }
@@ -1,5 +1,6 @@
 package com.epam.learn.springcore;
 
+import com.epam.learn.springcore.controller.TraineeController;
 import com.epam.learn.springcore.controller.TrainerController;
 import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.facade.AuthenticationFacade;
@@ -12,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +22,7 @@ import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.*;
 
 public class TrainerControllerTest {
@@ -31,6 +34,9 @@ public class TrainerControllerTest {
     private CustomUserDetailsService userDetailsService;
     @Mock
     private JwtTokenUtil jwtTokenUtil;
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private TrainerController trainerController;
 
@@ -49,16 +55,18 @@ public class TrainerControllerTest {
         GetTrainerProfileResponse expectedResponse = new GetTrainerProfileResponse();
 
         when(authenticationFacade.extractAuthToken(headers)).thenReturn(token);
-        when(trainerService.selectTrainer(username)).thenReturn(expectedResponse);
+        when(trainerService.getTrainerProfileETag(username)).thenReturn("\"1-1-0-0\"");
+        when(trainerService.selectTrainerWithETag(username)).thenReturn(new ETaggedResponse<>(expectedResponse, "\"1-1-0-0\""));
         when(jwtTokenUtil.getUsernameFromToken(token)).thenReturn(username);
 
         // Act
-        ResponseEntity<GetTrainerProfileResponse> response = trainerController.getTrainerProfile(username, headers);
+        ResponseEntity<GetTrainerProfileResponse> response = trainerController.getTrainerProfile(username, headers, webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedResponse, response.getBody());
-        verify(trainerService, times(1)).selectTrainer(username);
+        assertEquals("\"1-1-0-0\"", response.getHeaders().getETag());
+        verify(trainerService, times(1)).selectTrainerWithETag(username);
     }
 
     @Test
@@ -69,10 +77,10 @@ public class TrainerControllerTest {
         when(authenticationFacade.extractAuthToken(headers)).thenReturn("invalidToken");
         when(jwtTokenUtil.getUsernameFromToken("invalidToken")).thenReturn("anotherUser");
 
-        ResponseEntity<GetTrainerProfileResponse> response = trainerController.getTrainerProfile(username, headers);
+        ResponseEntity<GetTrainerProfileResponse> response = trainerController.getTrainerProfile(username, headers, webRequest);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(trainerService, never()).selectTrainer(username);
+        verify(trainerService, never()).selectTrainerWithETag(username);
     }
 
     @Test
@@ -152,16 +160,18 @@ public class TrainerControllerTest {
         List<TrainerTrainingResponse> expectedTrainings = List.of(new TrainerTrainingResponse());
         when(authenticationFacade.extractAuthToken(headers)).thenReturn(token);
         when(jwtTokenUtil.getUsernameFromToken(token)).thenReturn(username);
-        when(trainerService.getTrainerTrainings(username, null, null, null)).thenReturn(expectedTrainings);
+        when(trainerService.getTrainerTrainings(username, null, null, null, null, null))
+                .thenReturn(new TrainingHistoryPage<>(expectedTrainings, null));
 
         // Act
         ResponseEntity<List<TrainerTrainingResponse>> response = trainerController.getTrainerTrainings(username, null,
-                null, null, headers);
+                null, null, null, null, headers);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedTrainings, response.getBody());
-        verify(trainerService, times(1)).getTrainerTrainings(username, null, null, null);
+        assertFalse(response.getHeaders().containsKey(TraineeController.NEXT_CURSOR_HEADER));
+        verify(trainerService, times(1)).getTrainerTrainings(username, null, null, null, null, null);
     }
 
     // Unit test for adding a training for a trainer with successful authentication
@@ -7,23 +7,29 @@ import static org.mockito.Mockito.*;
 import com.epam.learn.springcore.dao.TraineeRepository;
 import com.epam.learn.springcore.dao.TrainerRepository;
 import com.epam.learn.springcore.dao.TrainingRepository;
-import com.epam.learn.springcore.dao.TrainingTypeRepository;
 import com.epam.learn.springcore.dto.*;
 import com.epam.learn.springcore.entity.*;
+import com.epam.learn.springcore.exception.PasswordHashingBusyException;
 import com.epam.learn.springcore.exception.TrainingTypeNotFoundException;
+import com.epam.learn.springcore.service.AvailableTrainersCache;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.PasswordHashingService;
 import com.epam.learn.springcore.service.TrainerService;
+import com.epam.learn.springcore.service.TrainingTypeService;
 import com.epam.learn.springcore.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class TrainerServiceTest {
@@ -34,7 +40,7 @@ public class TrainerServiceTest {
     private UserService userService;
 
     @Mock
-    private TrainingTypeRepository trainingTypeRepository;
+    private TrainingTypeService trainingTypeService;
 
     @Mock
     private TrainingRepository trainingRepository;
@@ -43,7 +49,13 @@ public class TrainerServiceTest {
     private TraineeRepository traineeRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private AvailableTrainersCache availableTrainersCache;
 
     @InjectMocks
     private TrainerService trainerService;
@@ -73,7 +85,7 @@ public class TrainerServiceTest {
 
         when(userService.calculateUsername("John", "Doe")).thenReturn("John.Doe");
         when(userService.generateRandomPassword()).thenReturn("randomPassword");
-        when(trainingTypeRepository.findById(1)).thenReturn(Optional.of(trainingType));
+        when(trainingTypeService.findById(1)).thenReturn(Optional.of(trainingType));
         when(trainerRepository.save(any(Trainer.class))).thenReturn(trainer);
 
         // Act
@@ -93,7 +105,7 @@ public class TrainerServiceTest {
         request.setLastName("Doe");
         request.setSpecializationId(1);
 
-        when(trainingTypeRepository.findById(1)).thenReturn(Optional.empty());
+        when(trainingTypeService.findById(1)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TrainingTypeNotFoundException.class, () -> trainerService.createTrainer(request));
@@ -101,6 +113,91 @@ public class TrainerServiceTest {
         verify(trainerRepository, never()).save(any(Trainer.class));
     }
 
+    @Test
+    void createTrainers_savesChunkAtOnceAndReportsUnknownSpecialization() {
+        // Arrange
+        TrainingType trainingType = new TrainingType(1, "fitness");
+        List<TrainerRegistrationRequest> requests = List.of(
+                new TrainerRegistrationRequest("John", "Doe", 1),
+                new TrainerRegistrationRequest("Jane", "Roe", 99),
+                new TrainerRegistrationRequest("John", "Doe", 1));
+        when(trainingTypeService.getTrainingTypesById()).thenReturn(Map.of(1, trainingType));
+        when(userService.generateRandomPassword()).thenReturn("password1", "password2");
+        when(passwordHashingService.encodeAll(List.of("password1", "password2"))).thenReturn(List.of("hash1", "hash2"));
+        when(userService.calculateUsernames(List.of("John.Doe", "John.Doe"))).thenReturn(List.of("John.Doe", "John.Doe1"));
+
+        // Act
+        List<BulkRegistrationResult> results = trainerService.createTrainers(requests);
+
+        // Assert
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getUsername()).isEqualTo("John.Doe");
+        assertThat(results.get(0).getPassword()).isEqualTo("password1");
+        assertThat(results.get(1).getUsername()).isNull();
+        assertThat(results.get(1).getError()).isEqualTo("Specialization type with id 99 not found");
+        assertThat(results.get(2).getUsername()).isEqualTo("John.Doe1");
+        assertThat(results.get(2).getPassword()).isEqualTo("password2");
+        verify(trainerRepository, times(1)).saveAll(argThat(trainers -> trainers instanceof List<?> list && list.size() == 2));
+        verify(trainerRepository, never()).save(any(Trainer.class));
+    }
+
+    @Test
+    void createTrainers_takenUsername_fallsBackToOneByOne() {
+        // Arrange
+        TrainingType trainingType = new TrainingType(1, "fitness");
+        List<TrainerRegistrationRequest> requests = List.of(
+                new TrainerRegistrationRequest("John", "Doe", 1),
+                new TrainerRegistrationRequest("Jane", "Roe", 99));
+        when(trainingTypeService.getTrainingTypesById()).thenReturn(Map.of(1, trainingType));
+        when(trainingTypeService.findById(1)).thenReturn(Optional.of(trainingType));
+        when(trainingTypeService.findById(99)).thenReturn(Optional.empty());
+        when(userService.generateRandomPassword()).thenReturn("password1", "password2");
+        when(passwordHashingService.encodeAll(List.of("password1"))).thenReturn(List.of("hash1"));
+        when(passwordHashingService.encode("password2")).thenReturn("hash2");
+        when(userService.calculateUsernames(List.of("John.Doe"))).thenReturn(List.of("John.Doe"));
+        when(userService.calculateUsername("John", "Doe")).thenReturn("John.Doe1");
+        when(trainerRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Duplicate entry 'John.Doe'"));
+
+        // Act
+        List<BulkRegistrationResult> results = trainerService.createTrainers(requests);
+
+        // Assert
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getUsername()).isEqualTo("John.Doe1");
+        assertThat(results.get(0).getPassword()).isEqualTo("password2");
+        assertThat(results.get(1).getError()).isEqualTo("Specialization type with id 99 not found");
+        verify(trainerRepository, times(1)).save(any(Trainer.class));
+    }
+
+    @Test
+    void createTrainers_fallbackRowFails_otherRowsKeepCredentials() {
+        // Arrange
+        TrainingType trainingType = new TrainingType(1, "fitness");
+        List<TrainerRegistrationRequest> requests = List.of(
+                new TrainerRegistrationRequest("John", "Doe", 1),
+                new TrainerRegistrationRequest("Jane", "Roe", 1));
+        when(trainingTypeService.getTrainingTypesById()).thenReturn(Map.of(1, trainingType));
+        when(trainingTypeService.findById(1)).thenReturn(Optional.of(trainingType));
+        when(userService.generateRandomPassword()).thenReturn("password1", "password2", "password3", "password4");
+        when(passwordHashingService.encodeAll(List.of("password1", "password2"))).thenReturn(List.of("hash1", "hash2"));
+        when(passwordHashingService.encode("password3")).thenReturn("hash3");
+        when(passwordHashingService.encode("password4")).thenThrow(new PasswordHashingBusyException("Too many concurrent password operations"));
+        when(userService.calculateUsernames(List.of("John.Doe", "Jane.Roe"))).thenReturn(List.of("John.Doe", "Jane.Roe"));
+        when(userService.calculateUsername("John", "Doe")).thenReturn("John.Doe1");
+        when(trainerRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Duplicate entry 'John.Doe'"));
+
+        // Act
+        List<BulkRegistrationResult> results = trainerService.createTrainers(requests);
+
+        // Assert
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getUsername()).isEqualTo("John.Doe1");
+        assertThat(results.get(0).getPassword()).isEqualTo("password3");
+        assertThat(results.get(1).getUsername()).isNull();
+        assertThat(results.get(1).getError()).isEqualTo("Registration failed, the row was not imported");
+        verify(trainerRepository, times(1)).save(any(Trainer.class));
+    }
+
     @Test
     void updateTrainer_successfulUpdate() {
         // Arrange
@@ -119,8 +216,9 @@ public class TrainerServiceTest {
         Trainer trainer = new Trainer();
         trainer.setUser(user);
         trainer.setSpecialization(trainingType);
+        trainer.setTrainees(new HashSet<>());
 
-        when(trainerRepository.findByUsername("John.Doe")).thenReturn(Optional.of(trainer));
+        when(trainerRepository.findProfileByUsername("John.Doe")).thenReturn(Optional.of(trainer));
         when(trainerRepository.save(any(Trainer.class))).thenReturn(trainer);
 
         // Act
@@ -143,16 +241,16 @@ public class TrainerServiceTest {
         Trainer trainer = new Trainer();
         trainer.setUser(user);
         trainer.setSpecialization(trainingType);
-        trainer.setTrainees(new ArrayList<>());
+        trainer.setTrainees(new HashSet<>());
 
-        when(trainerRepository.findByUsername("John.Doe")).thenReturn(Optional.of(trainer));
+        when(trainerRepository.findProfileByUsername("John.Doe")).thenReturn(Optional.of(trainer));
 
         // Act
         GetTrainerProfileResponse result = trainerService.selectTrainer("John.Doe");
 
         // Assert
         assertThat(result.getFirstName()).isEqualTo(user.getFirstName());
-        verify(trainerRepository).findByUsername("John.Doe");
+        verify(trainerRepository).findProfileByUsername("John.Doe");
     }
 
     @Test
@@ -175,6 +273,8 @@ public class TrainerServiceTest {
         // Assert
         assertThat(trainer.getUser().getIsActive()).isTrue();
         verify(trainerRepository).save(trainer);
+        verify(userDetailsService).evictUser("John.Doe");
+        verify(availableTrainersCache).evictAll();
     }
 
     @Test
@@ -183,31 +283,20 @@ public class TrainerServiceTest {
         String username = "jdoe";
         LocalDate from = LocalDate.now();
         LocalDate to = LocalDate.now().plusDays(7);
-        Trainer trainer = new Trainer();
-        trainer.setSpecialization(new TrainingType());
-        Trainee trainee = new Trainee();
-        User user = new User();
-        user.setUsername("Mary.Public");
-        user.setFirstName("Mary");
-        user.setLastName("Public");
-        trainee.setUser(user);
-
-        List<Training> trainings = new ArrayList<>();
-        Training training = new Training();
-        training.setTrainingName("Cardio");
-        training.setTrainer(trainer);
-        training.setTrainee(trainee);
-        trainings.add(training);
+        List<TrainerTrainingResponse> trainings = new ArrayList<>();
+        trainings.add(new TrainerTrainingResponse("Cardio", from, "Cardio", 60, "Mary.Public"));
+        when(trainerRepository.findIdByUsername(username)).thenReturn(Optional.of(1));
 
-        when(trainingRepository.findAll(any(Specification.class))).thenReturn(trainings);
+        when(trainingRepository.findTrainerTrainings(any(Specification.class), isNull(), eq(TrainingHistoryPage.DEFAULT_PAGE_SIZE)))
+                .thenReturn(new TrainingHistoryPage<>(trainings, "next"));
 
         // Act
-        List<TrainerTrainingResponse> result = trainerService.getTrainerTrainings(username, from, to, null);
+        TrainingHistoryPage<TrainerTrainingResponse> result = trainerService.getTrainerTrainings(username, from, to, null, null, null);
 
         // Assert
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getTrainingName()).isEqualTo("Cardio");
-        verify(trainingRepository).findAll(any(Specification.class));
+        assertThat(result.getTrainings()).hasSize(1);
+        assertThat(result.getTrainings().get(0).getTrainingName()).isEqualTo("Cardio");
+        assertThat(result.getNextCursor()).isEqualTo("next");
     }
 
     @Test
@@ -218,6 +307,7 @@ public class TrainerServiceTest {
         request.setTrainerUsername("trainer1");
         request.setTrainingName("Cardio");
         request.setTrainingDate(LocalDate.now());
+        request.setTrainingDuration(60);
 
         Trainee trainee = new Trainee();
         User traineeUser = new User();
@@ -228,16 +318,50 @@ public class TrainerServiceTest {
         User trainerUser = new User();
         trainerUser.setUsername("trainer1");
         trainer.setUser(trainerUser);
-        trainer.setTrainees(List.of(trainee));
 
         when(traineeRepository.findByUsername("trainee1")).thenReturn(Optional.of(trainee));
         when(trainerRepository.findByUsername("trainer1")).thenReturn(Optional.of(trainer));
-        when(trainingRepository.findAll()).thenReturn(new ArrayList<>());
+        when(trainerRepository.isTraineeAssigned(trainer.getId(), trainee.getId())).thenReturn(true);
+        when(trainingRepository.existsOverlappingTrainerTraining(any(), any(), any(), any())).thenReturn(false);
+        when(trainingRepository.existsOverlappingTraineeTraining(any(), any(), any(), any())).thenReturn(false);
 
         // Act
         trainerService.addTraining(request);
 
         // Assert
         verify(trainingRepository).save(any(Training.class));
+        verify(trainingRepository, never()).findAll();
+    }
+
+    @Test
+    void addTraining_skipsOverlappingTraining() {
+        // Arrange
+        LocalDate trainingDate = LocalDate.of(2024, 11, 11);
+        AddTrainingRequest request = new AddTrainingRequest("trainee1", "trainer1", "Cardio", trainingDate, 90);
+
+        Trainee trainee = new Trainee();
+        trainee.setId(2);
+        User traineeUser = new User();
+        traineeUser.setUsername("trainee1");
+        trainee.setUser(traineeUser);
+
+        Trainer trainer = new Trainer();
+        trainer.setId(1);
+        User trainerUser = new User();
+        trainerUser.setUsername("trainer1");
+        trainer.setUser(trainerUser);
+
+        when(traineeRepository.findByUsername("trainee1")).thenReturn(Optional.of(trainee));
+        when(trainerRepository.findByUsername("trainer1")).thenReturn(Optional.of(trainer));
+        when(trainerRepository.isTraineeAssigned(trainer.getId(), trainee.getId())).thenReturn(true);
+        when(trainingRepository.existsOverlappingTrainerTraining(1, LocalDate.of(2024, 11, 4), trainingDate, trainingDate.atStartOfDay()))
+                .thenReturn(true);
+
+        // Act
+        trainerService.addTraining(request);
+
+        // Assert
+        verify(trainingRepository, never()).save(any(Training.class));
+        verify(trainingRepository, never()).existsOverlappingTraineeTraining(any(), any(), any(), any());
     }
 }
@@ -0,0 +1,35 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.dto.TrainingCursor;
+import com.epam.learn.springcore.dto.TrainingHistoryPage;
+import com.epam.learn.springcore.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrainingCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        TrainingCursor cursor = new TrainingCursor(LocalDate.of(2024, 2, 29), 12345);
+
+        assertEquals(cursor, TrainingCursor.decode(cursor.encode()));
+        assertNull(TrainingCursor.decode(null));
+        assertNull(TrainingCursor.decode(""));
+    }
+
+    @Test
+    void testDecode_RejectsTamperedCursor() {
+        assertThrows(InvalidCursorException.class, () -> TrainingCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> TrainingCursor.decode("MjAyNC0wMi0yOQ"));
+    }
+
+    @Test
+    void testPageSize_IsClamped() {
+        assertEquals(TrainingHistoryPage.DEFAULT_PAGE_SIZE, TrainingHistoryPage.pageSize(null));
+        assertEquals(1, TrainingHistoryPage.pageSize(0));
+        assertEquals(TrainingHistoryPage.MAX_PAGE_SIZE, TrainingHistoryPage.pageSize(Integer.MAX_VALUE));
+    }
+}
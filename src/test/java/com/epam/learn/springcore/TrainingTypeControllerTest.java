@@ -10,11 +10,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 public class TrainingTypeControllerTest {
@@ -22,6 +24,9 @@ public class TrainingTypeControllerTest {
     @Mock
     private TrainingTypeService trainingTypeService;
 
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private TrainingTypeController trainingTypeController;
 
@@ -37,14 +42,30 @@ public class TrainingTypeControllerTest {
 
         List<TrainingType> mockTrainingTypes = Arrays.asList(new TrainingType(1, "Type1"), new TrainingType(2, "Type2"));
         when(trainingTypeService.getAllTrainingTypes()).thenReturn(mockTrainingTypes);
+        when(trainingTypeService.getETag()).thenReturn("\"abc\"");
 
         // Act
-        ResponseEntity<List<TrainingType>> response = trainingTypeController.getAllTrainingTypes();
+        ResponseEntity<List<TrainingType>> response = trainingTypeController.getAllTrainingTypes(webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockTrainingTypes, response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
         verify(trainingTypeService, times(1)).getAllTrainingTypes();
     }
 
+    @Test
+    void testGetAllTrainingTypes_NotModified() {
+        // Arrange
+        when(trainingTypeService.getETag()).thenReturn("\"abc\"");
+        when(webRequest.checkNotModified("\"abc\"")).thenReturn(true);
+
+        // Act
+        ResponseEntity<List<TrainingType>> response = trainingTypeController.getAllTrainingTypes(webRequest);
+
+        // Assert
+        assertNull(response);
+        verify(trainingTypeService, never()).getAllTrainingTypes();
+    }
+
 }
@@ -11,6 +11,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -64,4 +65,26 @@ public class TrainingTypeServiceTest {
         assertTrue(result.isEmpty());
         verify(trainingTypeRepository, times(1)).findAll();
     }
+
+    @Test
+    public void testLookups_ServedFromSnapshotUntilRefresh() {
+        // Given
+        when(trainingTypeRepository.findAll())
+                .thenReturn(List.of(new TrainingType(1, "Yoga")))
+                .thenReturn(List.of(new TrainingType(1, "Yoga"), new TrainingType(2, "Pilates")));
+
+        // When
+        trainingTypeService.getAllTrainingTypes();
+        Optional<TrainingType> byName = trainingTypeService.findByName("YOGA");
+        Optional<TrainingType> byId = trainingTypeService.findById(1);
+        Optional<TrainingType> missing = trainingTypeService.findById(2);
+        trainingTypeService.refresh();
+
+        // Then
+        assertEquals("Yoga", byName.orElseThrow().getName());
+        assertEquals("Yoga", byId.orElseThrow().getName());
+        assertTrue(missing.isEmpty());
+        assertEquals("Pilates", trainingTypeService.findById(2).orElseThrow().getName());
+        verify(trainingTypeRepository, times(2)).findAll();
+    }
 }
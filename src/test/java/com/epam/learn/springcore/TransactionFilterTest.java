@@ -0,0 +1,73 @@
+package com.epam.learn.springcore;
+
+import com.epam.learn.springcore.filter.TransactionFilter;
+import com.epam.learn.springcore.monitoring.TransactionIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionFilterTest {
+    private final TransactionFilter transactionFilter = new TransactionFilter(new TransactionIdGenerator("node1"));
+
+    @Test
+    void testDoFilter_GeneratesIdAndEchoesIt() throws Exception {
+        // Arrange
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        // Act
+        String firstId = filter(new MockHttpServletRequest(), first);
+        String secondId = filter(new MockHttpServletRequest(), second);
+
+        // Assert
+        assertTrue(firstId.startsWith("node1-"));
+        assertNotEquals(firstId, secondId);
+        assertEquals(firstId, first.getHeader(TransactionFilter.REQUEST_ID_HEADER));
+        assertEquals(secondId, second.getHeader(TransactionFilter.REQUEST_ID_HEADER));
+        assertNull(MDC.get("transactionId"));
+    }
+
+    @Test
+    void testDoFilter_HonorsIncomingRequestIdAndTraceparent() throws Exception {
+        // Arrange
+        MockHttpServletRequest withRequestId = new MockHttpServletRequest();
+        withRequestId.addHeader(TransactionFilter.REQUEST_ID_HEADER, "client-42");
+        MockHttpServletRequest withTraceparent = new MockHttpServletRequest();
+        withTraceparent.addHeader("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        // Act & Assert
+        assertEquals("client-42", filter(withRequestId, new MockHttpServletResponse()));
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", filter(withTraceparent, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void testDoFilter_ReplacesMalformedRequestId() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TransactionFilter.REQUEST_ID_HEADER, "forged\nINFO admin logged in");
+
+        // Act
+        String transactionId = filter(request, new MockHttpServletResponse());
+
+        // Assert
+        assertTrue(transactionId.startsWith("node1-"));
+    }
+
+    private String filter(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<String> transactionId = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+                transactionId.set(MDC.get("transactionId"));
+            }
+        };
+        transactionFilter.doFilter(request, response, chain);
+        return transactionId.get();
+    }
+}
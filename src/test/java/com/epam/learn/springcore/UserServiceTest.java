@@ -1,15 +1,20 @@
 package com.epam.learn.springcore;
 
 import com.epam.learn.springcore.dao.UserRepository;
+import com.epam.learn.springcore.dto.UsernameUsage;
 import com.epam.learn.springcore.entity.User;
 import com.epam.learn.springcore.exception.TrainerNotFoundException;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.PasswordHashingService;
 import com.epam.learn.springcore.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +24,12 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
     @InjectMocks
     private UserService userService;
 
@@ -46,14 +57,15 @@ public class UserServiceTest {
         String expectedUsername = "John.Doe";
 
         // Mock repository behavior to simulate username is not present
-        when(userRepository.findByUsername(expectedUsername)).thenReturn(Optional.empty());
+        when(userRepository.findUsernameUsage("John.Doe%", 8)).thenReturn(usage(0, null));
 
         // When
         String calculatedUsername = userService.calculateUsername(firstName, lastName);
 
         // Then
         assertEquals(expectedUsername, calculatedUsername);
-        verify(userRepository, times(1)).findByUsername(expectedUsername);
+        verify(userRepository, times(1)).findUsernameUsage("John.Doe%", 8);
+        verify(userRepository, never()).findByUsername(anyString());
     }
 
     @Test
@@ -61,20 +73,56 @@ public class UserServiceTest {
         // Given
         String firstName = "John";
         String lastName = "Doe";
-        String baseUsername = "John.Doe";
         String expectedUsername = "John.Doe1";
 
         // Mock repository behavior to simulate that the first username is taken
-        when(userRepository.findByUsername(baseUsername)).thenReturn(Optional.of(new User()));
-        when(userRepository.findByUsername(expectedUsername)).thenReturn(Optional.empty());
+        when(userRepository.findUsernameUsage("John.Doe%", 8)).thenReturn(usage(1, null));
 
         // When
         String calculatedUsername = userService.calculateUsername(firstName, lastName);
 
         // Then
         assertEquals(expectedUsername, calculatedUsername);
-        verify(userRepository, times(1)).findByUsername(baseUsername);
-        verify(userRepository, times(1)).findByUsername(expectedUsername);
+        verify(userRepository, times(1)).findUsernameUsage("John.Doe%", 8);
+    }
+
+    @Test
+    public void testCalculateUsername_NextAfterHighestSuffix() {
+        // Given
+        when(userRepository.findUsernameUsage("John.Doe%", 8)).thenReturn(usage(1, 12L));
+
+        // When
+        String calculatedUsername = userService.calculateUsername("John", "Doe");
+
+        // Then
+        assertEquals("John.Doe13", calculatedUsername);
+    }
+
+    @Test
+    public void testCalculateUsername_EscapesLikeWildcards() {
+        // Given
+        when(userRepository.findUsernameUsage(anyString(), anyInt())).thenReturn(usage(0, null));
+
+        // When
+        String calculatedUsername = userService.calculateUsername("Jo%n", "D_e!");
+
+        // Then
+        assertEquals("Jo%n.D_e!", calculatedUsername);
+        verify(userRepository, times(1)).findUsernameUsage("Jo!%n.D!_e!!%", 9);
+    }
+
+    @Test
+    public void testCalculateUsernames_SingleLookupForWholeBatch() {
+        // Given
+        when(userRepository.findUsernamesStartingWithAny(anyCollection())).thenReturn(List.of("John.Doe3"));
+
+        // When
+        List<String> usernames = userService.calculateUsernames(List.of("John.Doe", "Mary.Public", "john.doe"));
+
+        // Then
+        assertEquals(List.of("John.Doe", "Mary.Public", "John.Doe4"), usernames);
+        verify(userRepository, times(1)).findUsernamesStartingWithAny(anyCollection());
+        verify(userRepository, never()).findAll(any(Specification.class));
     }
 
     @Test
@@ -90,4 +138,37 @@ public class UserServiceTest {
         assertThrows(TrainerNotFoundException.class, () -> userService.changePassword(username, newPassword));
         verify(userRepository, times(1)).findByUsername(username);
     }
+
+    @Test
+    public void testChangePassword_EvictsCachedUserDetails() {
+        // Given
+        String username = "John.Doe";
+        User user = new User();
+        user.setUsername(username);
+
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(passwordHashingService.encode("newPassword123")).thenReturn("encoded");
+
+        // When
+        userService.changePassword(username, "newPassword123");
+
+        // Then
+        assertEquals("encoded", user.getPassword());
+        verify(userRepository, times(1)).save(user);
+        verify(userDetailsService, times(1)).evictUser(username);
+    }
+
+    private static UsernameUsage usage(long baseTaken, Long maxSuffix) {
+        return new UsernameUsage() {
+            @Override
+            public Long getBaseTaken() {
+                return baseTaken;
+            }
+
+            @Override
+            public Long getMaxSuffix() {
+                return maxSuffix;
+            }
+        };
+    }
 }
@@ -0,0 +1,47 @@
+package com.epam.learn.springcore.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.epam.learn.springcore.entity.Trainee;
+import com.epam.learn.springcore.entity.Trainer;
+import com.epam.learn.springcore.entity.TrainingType;
+import com.epam.learn.springcore.entity.User;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    // Without a Spring context logback falls back to DEBUG on the console, which would dominate the numbers. Lockout warnings are expected under load too
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+    }
+
+    static User user(String username) {
+        User user = new User();
+        user.setFirstName(username + "-first");
+        user.setLastName(username + "-last");
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setIsActive(true);
+        return user;
+    }
+
+    static List<Trainer> trainers(int count) {
+        TrainingType specialization = new TrainingType(1, "fitness");
+        return IntStream.range(0, count)
+                .mapToObj(i -> Trainer.builder().id(i).user(user("trainer" + i)).specialization(specialization)
+                        .trainees(new LinkedHashSet<>()).build())
+                .toList();
+    }
+
+    static List<Trainee> trainees(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Trainee.builder().id(i).user(user("trainee" + i)).trainers(new LinkedHashSet<>()).build())
+                .toList();
+    }
+}
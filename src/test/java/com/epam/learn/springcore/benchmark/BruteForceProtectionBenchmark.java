@@ -0,0 +1,62 @@
+package com.epam.learn.springcore.benchmark;
+
+import com.epam.learn.springcore.service.BruteForceProtectionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Eight threads hammering the throttle: a handful of hot usernames and IPs contend on the same entries,
+// random usernames keep the bounded store evicting
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BruteForceProtectionBenchmark {
+    private static final int HOT_KEYS = 4;
+
+    private BruteForceProtectionService bruteForceProtectionService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        bruteForceProtectionService = new BruteForceProtectionService(new SimpleMeterRegistry(),
+                3, 20, 300_000, 300_000, 100_000);
+    }
+
+    @Benchmark
+    public void hotKeyFailures() {
+        int key = ThreadLocalRandom.current().nextInt(HOT_KEYS);
+        bruteForceProtectionService.loginFailed("user" + key, "10.0.0." + key);
+    }
+
+    @Benchmark
+    public void randomUsernameFailures() {
+        bruteForceProtectionService.loginFailed("user" + ThreadLocalRandom.current().nextInt(1_000_000), "10.0.0.1");
+    }
+
+    @Benchmark
+    public boolean isBlocked() {
+        int key = ThreadLocalRandom.current().nextInt(HOT_KEYS);
+        return bruteForceProtectionService.isBlocked("user" + key, "10.0.0." + key);
+    }
+
+    // Mixed traffic: mostly checks, some failures and successes, as seen by the login endpoint
+    @Benchmark
+    public boolean loginAttempt() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String username = "user" + random.nextInt(1_000);
+        String ip = "10.0." + random.nextInt(4) + "." + random.nextInt(256);
+        boolean blocked = bruteForceProtectionService.isBlocked(username, ip);
+        if (random.nextInt(10) == 0) {
+            bruteForceProtectionService.loginFailed(username, ip);
+        } else {
+            bruteForceProtectionService.loginSucceeded(username, ip);
+        }
+        return blocked;
+    }
+}
@@ -0,0 +1,68 @@
+package com.epam.learn.springcore.benchmark;
+
+import com.epam.learn.springcore.dao.InMemoryTokenRevocationStore;
+import com.epam.learn.springcore.jwt.JwtRequestFilter;
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import com.epam.learn.springcore.service.CustomUserDetailsService;
+import com.epam.learn.springcore.service.TokenBlacklistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// The whole filter for an authenticated request: blacklist check, claims, user lookup and security context
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+    @Param({"false", "true"})
+    public boolean tokenOnlyAuthentication;
+
+    private JwtRequestFilter jwtRequestFilter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new SimpleMeterRegistry());
+        UserDetails userDetails = new User("john.doe", "password", List.of());
+        CustomUserDetailsService customUserDetailsService = mock(CustomUserDetailsService.class, withSettings().stubOnly());
+        when(customUserDetailsService.loadUserByUsername("john.doe")).thenReturn(userDetails);
+
+        jwtRequestFilter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(jwtRequestFilter, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(jwtRequestFilter, "customUserDetailsService", customUserDetailsService);
+        ReflectionTestUtils.setField(jwtRequestFilter, "tokenBlacklistService",
+                new TokenBlacklistService(new InMemoryTokenRevocationStore(), jwtTokenUtil, false));
+        ReflectionTestUtils.setField(jwtRequestFilter, "tokenOnlyAuthentication", tokenOnlyAuthentication);
+        authorizationHeader = "Bearer " + jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/trainees/john.doe");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtRequestFilter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
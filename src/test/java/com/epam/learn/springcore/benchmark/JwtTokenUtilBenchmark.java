@@ -0,0 +1,47 @@
+package com.epam.learn.springcore.benchmark;
+
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenUtilBenchmark {
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        jwtTokenUtil = new JwtTokenUtil(new SimpleMeterRegistry());
+        userDetails = new User("john.doe", "", List.of());
+        token = jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(userDetails);
+    }
+
+    // Claims of a known token come from the cache, so this is the per-request cost after the first call
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenUtil.validateToken(token, userDetails);
+    }
+
+    // A fresh token every time: signature check and claims parsing on top of the cache miss
+    @Benchmark
+    public boolean generateAndValidateToken() {
+        return jwtTokenUtil.validateToken(jwtTokenUtil.generateToken(userDetails), userDetails);
+    }
+}
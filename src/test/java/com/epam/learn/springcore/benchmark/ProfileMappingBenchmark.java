@@ -0,0 +1,70 @@
+package com.epam.learn.springcore.benchmark;
+
+import com.epam.learn.springcore.dao.TraineeRepository;
+import com.epam.learn.springcore.dao.TrainerRepository;
+import com.epam.learn.springcore.dto.GetTraineeProfileResponse;
+import com.epam.learn.springcore.dto.GetTrainerProfileResponse;
+import com.epam.learn.springcore.dto.TrainerResponse;
+import com.epam.learn.springcore.entity.Trainee;
+import com.epam.learn.springcore.entity.Trainer;
+import com.epam.learn.springcore.service.TraineeService;
+import com.epam.learn.springcore.service.TrainerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Entity to DTO mapping of profiles with large trainer/trainee lists. Repositories are stub-only mocks returning
+// prebuilt entities (no invocations recorded), so apart from a constant mock call the time is spent in the
+// convert* mappers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileMappingBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int size;
+
+    private TraineeService traineeService;
+    private TrainerService trainerService;
+    private List<Trainer> trainers;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        trainers = BenchmarkFixtures.trainers(size);
+        Trainee trainee = BenchmarkFixtures.trainees(1).get(0);
+        trainee.getTrainers().addAll(trainers);
+        Trainer trainer = BenchmarkFixtures.trainers(1).get(0);
+        trainer.getTrainees().addAll(BenchmarkFixtures.trainees(size));
+
+        TraineeRepository traineeRepository = mock(TraineeRepository.class, withSettings().stubOnly());
+        when(traineeRepository.findProfileByUsername("trainee")).thenReturn(Optional.of(trainee));
+        TrainerRepository trainerRepository = mock(TrainerRepository.class, withSettings().stubOnly());
+        when(trainerRepository.findProfileByUsername("trainer")).thenReturn(Optional.of(trainer));
+        traineeService = new TraineeService(traineeRepository, null, null, null, null, null, null, null);
+        trainerService = new TrainerService(trainerRepository, null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public GetTraineeProfileResponse traineeProfile() {
+        return traineeService.selectTrainee("trainee");
+    }
+
+    @Benchmark
+    public GetTrainerProfileResponse trainerProfile() {
+        return trainerService.selectTrainer("trainer");
+    }
+
+    @Benchmark
+    public List<TrainerResponse> trainerResponses() {
+        return trainers.stream().map(traineeService::convertTrainerToTrainerResponse).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.epam.learn.springcore.benchmark;
+
+import com.epam.learn.springcore.dao.InMemoryTokenRevocationStore;
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import com.epam.learn.springcore.service.TokenBlacklistService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Every authenticated request asks whether its token was revoked; almost always the answer is no
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBlacklistBenchmark {
+    private static final int REVOKED_TOKENS = 10_000;
+
+    @Param({"false", "true"})
+    public boolean bloomFilter;
+
+    private TokenBlacklistService tokenBlacklistService;
+    private String activeToken;
+    private String revokedToken;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new SimpleMeterRegistry());
+        InMemoryTokenRevocationStore revocationStore = new InMemoryTokenRevocationStore();
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        IntStream.range(0, REVOKED_TOKENS)
+                .forEach(i -> revocationStore.revoke(JwtTokenUtil.hashToken("revoked-" + i), expiresAt));
+        tokenBlacklistService = new TokenBlacklistService(revocationStore, jwtTokenUtil, bloomFilter);
+        activeToken = jwtTokenUtil.generateToken(new User("john.doe", "", List.of()));
+        revokedToken = "revoked-42";
+    }
+
+    @Benchmark
+    public boolean activeTokenLookup() {
+        return tokenBlacklistService.isTokenBlacklisted(activeToken);
+    }
+
+    @Benchmark
+    public boolean revokedTokenLookup() {
+        return tokenBlacklistService.isTokenBlacklisted(revokedToken);
+    }
+}
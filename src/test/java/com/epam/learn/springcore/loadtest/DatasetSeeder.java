@@ -0,0 +1,78 @@
+package com.epam.learn.springcore.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Set-based INSERT ... SELECT over H2's SYSTEM_RANGE, millions of rows go in without a round trip per row.
+// Trainee i is assigned trainers (i + k * stride) % trainers + 1 and its trainings are spread over them,
+// so the traffic generator can derive valid pairs without querying the database
+@Log4j2
+class DatasetSeeder {
+    private static final int TRAINING_CHUNK_TRAINEES = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dataset dataset;
+
+    DatasetSeeder(JdbcTemplate jdbcTemplate, Dataset dataset) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataset = dataset;
+    }
+
+    void seed(String passwordHash) {
+        long start = System.currentTimeMillis();
+        int trainees = dataset.trainees();
+        int trainers = dataset.trainers();
+        jdbcTemplate.update("INSERT INTO training_type (id, name) VALUES " +
+                "(1, 'fitness'), (2, 'yoga'), (3, 'Zumba'), (4, 'stretching'), (5, 'resistance')");
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) " +
+                "SELECT X, 'Trainee', CAST(X AS VARCHAR), 'trainee' || X, ?, TRUE, 0 FROM SYSTEM_RANGE(1, ?)",
+                passwordHash, trainees);
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, username, password, is_active, version) " +
+                "SELECT ? + X, 'Trainer', CAST(X AS VARCHAR), 'trainer' || X, ?, TRUE, 0 FROM SYSTEM_RANGE(1, ?)",
+                trainees, passwordHash, trainers);
+        jdbcTemplate.update("INSERT INTO trainee (id, user_id, date_of_birth, address, version) " +
+                "SELECT X, X, DATEADD('DAY', MOD(X, 10000), DATE '1970-01-01'), 'Street ' || X, 0 FROM SYSTEM_RANGE(1, ?)",
+                trainees);
+        jdbcTemplate.update("INSERT INTO trainer (id, user_id, specialization_id, version) " +
+                "SELECT X, ? + X, MOD(X, 5) + 1, 0 FROM SYSTEM_RANGE(1, ?)", trainees, trainers);
+        jdbcTemplate.update("INSERT INTO trainee_trainer (trainee_id, trainer_id) " +
+                "SELECT T.X, MOD(T.X + K.X * ?, ?) + 1 FROM SYSTEM_RANGE(1, ?) T CROSS JOIN SYSTEM_RANGE(0, ?) K",
+                dataset.trainerStride(), trainers, trainees, dataset.trainersPerTrainee() - 1);
+        log.info("Seeded {} trainees and {} trainers in {} ms", trainees, trainers, System.currentTimeMillis() - start);
+
+        // One training every few days going back from today, split by trainee range to keep transactions small
+        for (int from = 1; from <= trainees; from += TRAINING_CHUNK_TRAINEES) {
+            int to = Math.min(trainees, from + TRAINING_CHUNK_TRAINEES - 1);
+            jdbcTemplate.update("INSERT INTO training (trainee_id, trainer_id, training_name, training_date, training_duration) " +
+                    "SELECT T.X, MOD(T.X + MOD(R.X, ?) * ?, ?) + 1, 'Session ' || R.X, " +
+                    "DATEADD('DAY', -R.X * 3, CURRENT_DATE), 60 + MOD(R.X, 4) * 15 " +
+                    "FROM SYSTEM_RANGE(?, ?) T CROSS JOIN SYSTEM_RANGE(1, ?) R",
+                    dataset.trainersPerTrainee(), dataset.trainerStride(), trainers, from, to, dataset.trainingsPerTrainee());
+        }
+        // Ids were assigned here, the pooled generators have to continue after them
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (trainees + trainers + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE trainee_seq RESTART WITH " + (trainees + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE trainer_seq RESTART WITH " + (trainers + 1));
+        log.info("Seeded {} trainings in {} ms", (long) trainees * dataset.trainingsPerTrainee(),
+                System.currentTimeMillis() - start);
+    }
+
+    record Dataset(int trainees, int trainers, int trainersPerTrainee, int trainingsPerTrainee) {
+        int trainerStride() {
+            return Math.max(1, trainers / trainersPerTrainee);
+        }
+
+        String traineeUsername(int trainee) {
+            return "trainee" + trainee;
+        }
+
+        String trainerUsername(int trainer) {
+            return "trainer" + trainer;
+        }
+
+        // The k-th trainer assigned to the trainee
+        int trainerOf(int trainee, int k) {
+            return (trainee + k * trainerStride()) % trainers + 1;
+        }
+    }
+}
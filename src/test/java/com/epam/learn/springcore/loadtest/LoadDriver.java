@@ -0,0 +1,251 @@
+package com.epam.learn.springcore.loadtest;
+
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.core.userdetails.User;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop traffic: each worker sends its next request as soon as the previous one is answered
+@Log4j2
+class LoadDriver {
+    private static final String PASSWORD = LoadTestHarness.PASSWORD;
+    private static final Duration[] LATENCY_BUCKETS = Arrays.stream(new long[]{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000})
+            .mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+
+    private final String baseUrl;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final DatasetSeeder.Dataset dataset;
+    private final int concurrency;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+
+    LoadDriver(String baseUrl, JwtTokenUtil jwtTokenUtil, DatasetSeeder.Dataset dataset, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.dataset = dataset;
+        this.concurrency = concurrency;
+    }
+
+    Run run(Duration duration) throws InterruptedException {
+        Run run = new Run(duration);
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        send(run, Endpoint.pick(ThreadLocalRandom.current()));
+                    }
+                });
+            }
+        }
+        return run;
+    }
+
+    private void send(Run run, Endpoint endpoint) {
+        HttpRequest request;
+        try {
+            request = request(endpoint, ThreadLocalRandom.current());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not build " + endpoint.route, e);
+        }
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            log.debug("{} failed", endpoint.route, e);
+            status = -1;
+        }
+        run.record(endpoint, status, System.nanoTime() - start);
+    }
+
+    private HttpRequest request(Endpoint endpoint, ThreadLocalRandom random) throws Exception {
+        int trainee = random.nextInt(dataset.trainees()) + 1;
+        int trainer = dataset.trainerOf(trainee, random.nextInt(dataset.trainersPerTrainee()));
+        String traineeUsername = dataset.traineeUsername(trainee);
+        String trainerUsername = dataset.trainerUsername(trainer);
+        return switch (endpoint) {
+            case LOGIN -> post("/api/auth/login", null, Map.of("username", traineeUsername, "password", PASSWORD));
+            case TRAINEE_PROFILE -> get("/api/trainees/" + traineeUsername, traineeUsername);
+            case TRAINER_PROFILE -> get("/api/trainers/" + trainerUsername, trainerUsername);
+            // Last quarter, sometimes narrowed down to one trainer
+            case TRAINEE_TRAININGS -> get("/api/trainees/" + traineeUsername + "/trainings?periodFrom=" + LocalDate.now().minusMonths(3)
+                    + (random.nextBoolean() ? "&trainerName=" + trainerUsername : ""), traineeUsername);
+            case TRAINER_TRAININGS -> get("/api/trainers/" + trainerUsername + "/trainings?periodFrom=" + LocalDate.now().minusMonths(1),
+                    trainerUsername);
+            // Future dates, so the scheduling check has to look at the existing history without conflicts
+            case ADD_TRAINING -> post("/api/trainers/" + trainerUsername + "/trainings", trainerUsername, Map.of(
+                    "traineeUsername", traineeUsername,
+                    "trainerUsername", trainerUsername,
+                    "trainingName", "Load test",
+                    "trainingDate", LocalDate.now().plusDays(random.nextInt(1, 3650)),
+                    "trainingDuration", 60));
+        };
+    }
+
+    private HttpRequest get(String path, String username) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), username).GET().build();
+    }
+
+    private HttpRequest post(String path, String username, Map<String, Object> body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        return username == null ? builder.header("Accept", "application/json").build() : authorized(builder, username).build();
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder, String username) {
+        String token = tokens.computeIfAbsent(username, name -> jwtTokenUtil.generateToken(new User(name, "", List.of())));
+        return builder.header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    enum Endpoint {
+        LOGIN("POST /api/auth/login", 5),
+        TRAINEE_PROFILE("GET /api/trainees/{username}", 25),
+        TRAINER_PROFILE("GET /api/trainers/{username}", 10),
+        TRAINEE_TRAININGS("GET /api/trainees/{username}/trainings", 30),
+        TRAINER_TRAININGS("GET /api/trainers/{username}/trainings", 15),
+        ADD_TRAINING("POST /api/trainers/{username}/trainings", 15);
+
+        private static final int TOTAL_WEIGHT = Arrays.stream(values()).mapToInt(endpoint -> endpoint.weight).sum();
+
+        final String route;
+        final int weight;
+
+        Endpoint(String route, int weight) {
+            this.route = route;
+            this.weight = weight;
+        }
+
+        static Endpoint pick(Random random) {
+            int value = random.nextInt(TOTAL_WEIGHT);
+            for (Endpoint endpoint : values()) {
+                value -= endpoint.weight;
+                if (value < 0) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    // Latencies of one run; percentiles are kept for the whole run instead of Micrometer's rolling window
+    static class Run {
+        private final Duration duration;
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final Map<Endpoint, Timer> timers = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+        Run(Duration duration) {
+            this.duration = duration;
+            for (Endpoint endpoint : Endpoint.values()) {
+                timers.put(endpoint, Timer.builder("loadtest.latency")
+                        .tag("endpoint", endpoint.name())
+                        .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                        .serviceLevelObjectives(LATENCY_BUCKETS)
+                        .distributionStatisticExpiry(duration.plusHours(1))
+                        .distributionStatisticBufferLength(1)
+                        .register(registry));
+                errors.put(endpoint, new LongAdder());
+            }
+        }
+
+        void record(Endpoint endpoint, int status, long nanos) {
+            timers.get(endpoint).record(nanos, TimeUnit.NANOSECONDS);
+            if (status < 200 || status >= 300) {
+                errors.get(endpoint).increment();
+            }
+        }
+
+        String report(SqlTotals sqlBefore, SqlTotals sqlAfter) {
+            StringBuilder report = new StringBuilder(String.format("%-40s %9s %7s %9s %9s %9s %9s %9s %9s %7s %8s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "SQL/req", "rows/req"));
+            StringBuilder histograms = new StringBuilder("\nLatency histograms (requests per bucket):\n");
+            long total = 0;
+            for (Endpoint endpoint : Endpoint.values()) {
+                HistogramSnapshot snapshot = timers.get(endpoint).takeSnapshot();
+                ValueAtPercentile[] percentiles = snapshot.percentileValues();
+                total += snapshot.count();
+                SqlTotals.Totals sql = sqlAfter.since(sqlBefore, endpoint.route);
+                report.append(String.format("%-40s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %7.1f %8.1f%n",
+                        endpoint.route, snapshot.count(), errors.get(endpoint).sum(),
+                        snapshot.count() / (double) duration.toSeconds(),
+                        percentiles[0].value(TimeUnit.MILLISECONDS), percentiles[1].value(TimeUnit.MILLISECONDS),
+                        percentiles[2].value(TimeUnit.MILLISECONDS), percentiles[3].value(TimeUnit.MILLISECONDS),
+                        snapshot.max(TimeUnit.MILLISECONDS), sql.statementsPerRequest(), sql.rowsPerRequest()));
+                histograms.append(String.format("%-40s", endpoint.route));
+                double previous = 0;
+                for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                    histograms.append(String.format(" <=%.0fms:%.0f", bucket.bucket(TimeUnit.MILLISECONDS), bucket.count() - previous));
+                    previous = bucket.count();
+                }
+                histograms.append(String.format(" >%dms:%.0f%n", LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1].toMillis(),
+                        snapshot.count() - previous));
+            }
+            report.append(String.format("%-40s %9d %7s %9.1f%n", "total", total, "", total / (double) duration.toSeconds()));
+            return report.append(histograms).toString();
+        }
+    }
+
+    // Server side totals of the application's own http.server.requests.sql.* histograms, keyed by "METHOD uri"
+    record SqlTotals(Map<String, Totals> routes) {
+        static SqlTotals take(MeterRegistry meterRegistry) {
+            Map<String, Totals> routes = new HashMap<>();
+            for (DistributionSummary statements : meterRegistry.find("http.server.requests.sql.statements").summaries()) {
+                String method = statements.getId().getTag("method");
+                String uri = statements.getId().getTag("uri");
+                DistributionSummary rows = meterRegistry.get("http.server.requests.sql.rows")
+                        .tags("method", method, "uri", uri).summary();
+                routes.put(method + " " + uri, new Totals(statements.count(), statements.totalAmount(), rows.totalAmount()));
+            }
+            return new SqlTotals(routes);
+        }
+
+        Totals since(SqlTotals baseline, String route) {
+            Totals now = routes.getOrDefault(route, Totals.NONE);
+            Totals before = baseline.routes.getOrDefault(route, Totals.NONE);
+            return new Totals(now.requests - before.requests, now.statements - before.statements, now.rows - before.rows);
+        }
+
+        record Totals(long requests, double statements, double rows) {
+            static final Totals NONE = new Totals(0, 0, 0);
+
+            double statementsPerRequest() {
+                return requests == 0 ? 0 : statements / requests;
+            }
+
+            double rowsPerRequest() {
+                return requests == 0 ? 0 : rows / requests;
+            }
+        }
+    }
+}
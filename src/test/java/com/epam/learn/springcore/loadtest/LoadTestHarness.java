@@ -0,0 +1,75 @@
+package com.epam.learn.springcore.loadtest;
+
+import com.epam.learn.springcore.SpringCoreApplication;
+import com.epam.learn.springcore.jwt.JwtTokenUtil;
+import com.epam.learn.springcore.service.PasswordHashingService;
+import com.epam.learn.springcore.service.TrainingTypeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+// Boots the application on an embedded H2 database, seeds it and drives mixed traffic through the REST API.
+// Settings are Spring properties, e.g.
+// mvn -Ploadtest test -Dloadtest.args="--loadtest.trainees=10000 --loadtest.duration-seconds=60"
+public class LoadTestHarness {
+    static final String PASSWORD = "load-test-password";
+    private static final Path OUTPUT_DIRECTORY = Path.of("target", "loadtest");
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "spring.profiles.active", "loadtest",
+            "spring.datasource.url", "jdbc:h2:file:./target/loadtest/gym;MODE=MySQL",
+            "spring.datasource.username", "sa",
+            "spring.datasource.password", "",
+            "spring.jpa.hibernate.ddl-auto", "create",
+            "spring.flyway.enabled", "false",
+            "monitoring.sql.enabled", "true",
+            "server.port", "0",
+            "logging.level.root", "WARN",
+            // Seeding progress stays visible with the rest of the application kept quiet
+            "logging.level.com.epam.learn.springcore.loadtest", "INFO");
+
+    public static void main(String[] args) throws Exception {
+        // System properties rank above application.properties and below the command line arguments
+        DEFAULTS.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        // Every run starts from a freshly seeded database
+        Files.deleteIfExists(OUTPUT_DIRECTORY.resolve("gym.mv.db"));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringCoreApplication.class).run(args);
+        try {
+            Environment environment = context.getEnvironment();
+            DatasetSeeder.Dataset dataset = new DatasetSeeder.Dataset(
+                    environment.getProperty("loadtest.trainees", Integer.class, 100_000),
+                    environment.getProperty("loadtest.trainers", Integer.class, 5_000),
+                    environment.getProperty("loadtest.trainers-per-trainee", Integer.class, 3),
+                    environment.getProperty("loadtest.trainings-per-trainee", Integer.class, 100));
+            new DatasetSeeder(context.getBean(JdbcTemplate.class), dataset)
+                    .seed(context.getBean(PasswordHashingService.class).encode(PASSWORD));
+            context.getBean(TrainingTypeService.class).refresh();
+
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(baseUrl, context.getBean(JwtTokenUtil.class), dataset,
+                    environment.getProperty("loadtest.concurrency", Integer.class, 64));
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            driver.run(Duration.ofSeconds(environment.getProperty("loadtest.warmup-seconds", Integer.class, 30)));
+            LoadDriver.SqlTotals sqlBefore = LoadDriver.SqlTotals.take(meterRegistry);
+            LoadDriver.Run run = driver.run(Duration.ofSeconds(environment.getProperty("loadtest.duration-seconds", Integer.class, 120)));
+
+            String report = run.report(sqlBefore, LoadDriver.SqlTotals.take(meterRegistry));
+            System.out.println(report);
+            Files.createDirectories(OUTPUT_DIRECTORY);
+            Files.writeString(OUTPUT_DIRECTORY.resolve("report.txt"), report);
+        } finally {
+            context.close();
+        }
+    }
+}